@@ -0,0 +1,100 @@
+package com.sayedbaladoh.ecommerce.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.modelmapper.ModelMapper;
+
+import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
+import com.sayedbaladoh.ecommerce.dto.product.ProductDto;
+import com.sayedbaladoh.ecommerce.enums.OrderStatus;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.model.User;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+import com.sayedbaladoh.ecommerce.util.ObjectMapperHelper;
+import com.sayedbaladoh.ecommerce.util.mapper.OrderItemRequestMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.OrderItemResponseMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.OrderResponseMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.ProductRequestMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.ProductResponseMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.UserSummaryMapper;
+
+/**
+ * Test data and wiring shared by the benchmarks.
+ * 
+ * @author SayedBaladoh
+ */
+final class BenchmarkData {
+
+	private BenchmarkData() {
+	}
+
+	static ObjectMapperHelper objectMapperHelper() {
+		ProductResponseMapper productResponseMapper = new ProductResponseMapper();
+		OrderItemResponseMapper orderItemResponseMapper = new OrderItemResponseMapper(productResponseMapper);
+		UserSummaryMapper userSummaryMapper = new UserSummaryMapper();
+		ObjectMapperHelper objectMapperHelper = new ObjectMapperHelper(new ModelMapper(),
+				List.of(productResponseMapper, new ProductRequestMapper(), new OrderItemRequestMapper(),
+						orderItemResponseMapper, userSummaryMapper,
+						new OrderResponseMapper(orderItemResponseMapper, userSummaryMapper)));
+		objectMapperHelper.init();
+		return objectMapperHelper;
+	}
+
+	static User user(long id) {
+		User user = new User("user" + id, "user" + id + "@test.com", "password");
+		user.setId(id);
+		return user;
+	}
+
+	static Product product(long id) {
+		Product product = new Product(id);
+		product.setName("Product " + id);
+		product.setPriceInCents(MoneyUtil.toCents(10 + id % 90));
+		product.setAvailable(true);
+		product.setDescription("Description of product " + id);
+		product.setImageURL("http://placehold.it/200x100");
+		return product;
+	}
+
+	static Order order(long id, User user, int numberOfItems) {
+		Order order = new Order();
+		order.setId(id);
+		order.setStatus(OrderStatus.NEW);
+		order.setUser(user);
+		order.setCreatedDate(new Date());
+		order.setUpdatedDate(new Date());
+
+		List<OrderItem> orderItems = new ArrayList<>(numberOfItems);
+		for (int i = 0; i < numberOfItems; i++)
+			orderItems.add(new OrderItem(order, product(i + 1), 1 + i % 3));
+		order.setOrderItems(orderItems);
+		order.calculateTotals();
+		return order;
+	}
+
+	static List<Order> orders(int numberOfOrders, int numberOfItems) {
+		User user = user(1);
+		List<Order> orders = new ArrayList<>(numberOfOrders);
+		for (int i = 0; i < numberOfOrders; i++)
+			orders.add(order(i + 1, user, numberOfItems));
+		return orders;
+	}
+
+	static OrderDto orderDto(int numberOfItems) {
+		List<OrderItemDto> orderItems = new ArrayList<>(numberOfItems);
+		for (int i = 0; i < numberOfItems; i++) {
+			OrderItemDto orderItem = new OrderItemDto();
+			orderItem.setProduct(new ProductDto((long) i + 1));
+			orderItem.setQuantity(1 + i % 3);
+			orderItems.add(orderItem);
+		}
+		OrderDto orderDto = new OrderDto();
+		orderDto.setOrderItems(orderItems);
+		return orderDto;
+	}
+}
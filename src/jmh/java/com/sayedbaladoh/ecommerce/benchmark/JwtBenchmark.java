@@ -0,0 +1,80 @@
+package com.sayedbaladoh.ecommerce.benchmark;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.security.JwtTokenProvider;
+import com.sayedbaladoh.ecommerce.security.UserPrincipal;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Verifying JWT access tokens the way the authentication filter does.
+ * 
+ * @author SayedBaladoh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+	private JwtTokenProvider tokenProvider;
+
+	private String token;
+
+	@Setup
+	public void setUp() {
+		tokenProvider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "JWTSuperSecretKey");
+		ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 604800000);
+		ReflectionTestUtils.setField(tokenProvider, "jwtCacheMaximumSize", 10000L);
+		tokenProvider.init();
+
+		UserPrincipal userPrincipal = new UserPrincipal(1L, "user", "user@test.com", "password",
+				Collections.emptyList());
+		token = tokenProvider
+				.generateToken(new UsernamePasswordAuthenticationToken(userPrincipal, null, Collections.emptyList()));
+	}
+
+	@Benchmark
+	public boolean validateToken() {
+		return tokenProvider.validateToken(token);
+	}
+
+	@Benchmark
+	public Long getUserIdFromJWT() {
+		return tokenProvider.getUserIdFromJWT(token);
+	}
+
+	@Benchmark
+	public Long validateAndGetUserId() {
+		return tokenProvider.validateToken(token) ? tokenProvider.getUserIdFromJWT(token) : null;
+	}
+
+	@Benchmark
+	public Optional<Claims> parseToken() {
+		return tokenProvider.parseToken(token);
+	}
+
+	@Benchmark
+	public Optional<Long> getUserIdFromValidToken() {
+		return tokenProvider.getUserIdFromValidToken(token);
+	}
+}
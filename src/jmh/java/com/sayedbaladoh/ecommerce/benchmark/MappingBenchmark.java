@@ -0,0 +1,58 @@
+package com.sayedbaladoh.ecommerce.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.util.ObjectMapperHelper;
+
+/**
+ * Mapping a page of orders into order responses.
+ * 
+ * @author SayedBaladoh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+	@Param({ "50" })
+	private int pageSize;
+
+	@Param({ "1", "10" })
+	private int numberOfItems;
+
+	private ObjectMapperHelper objectMapperHelper;
+
+	private Page<Order> orders;
+
+	@Setup
+	public void setUp() {
+		objectMapperHelper = BenchmarkData.objectMapperHelper();
+		orders = new PageImpl<>(BenchmarkData.orders(pageSize, numberOfItems), PageRequest.of(0, pageSize),
+				pageSize * 10);
+	}
+
+	@Benchmark
+	public Page<OrderResponseDto> mapAllOrders() {
+		return objectMapperHelper.mapAll(orders, OrderResponseDto.class);
+	}
+}
@@ -0,0 +1,47 @@
+package com.sayedbaladoh.ecommerce.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sayedbaladoh.ecommerce.model.Order;
+
+/**
+ * Computing the total price of large baskets.
+ * 
+ * @author SayedBaladoh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderTotalBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int numberOfItems;
+
+	private Order order;
+
+	@Setup
+	public void setUp() {
+		order = BenchmarkData.order(1, BenchmarkData.user(1), numberOfItems);
+	}
+
+	@Benchmark
+	public long totalOrderPrice() {
+		order.calculateTotals();
+		return order.getSubtotalInCents();
+	}
+}
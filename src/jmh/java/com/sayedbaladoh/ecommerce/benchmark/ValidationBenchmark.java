@@ -0,0 +1,112 @@
+package com.sayedbaladoh.ecommerce.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.service.ProductService;
+import com.sayedbaladoh.ecommerce.service.impl.FraudVelocityServiceImpl;
+import com.sayedbaladoh.ecommerce.validations.ValidationContext;
+import com.sayedbaladoh.ecommerce.validations.ValidationStrategyFactory;
+import com.sayedbaladoh.ecommerce.validations.ValidationViolation;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationDomain;
+import com.sayedbaladoh.ecommerce.validations.policy.AvailabilityValidator;
+import com.sayedbaladoh.ecommerce.validations.policy.ProductsExistenceValidator;
+import com.sayedbaladoh.ecommerce.validations.rules.CheckoutRuleEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Running the order save and checkout validation policies.
+ * 
+ * The product service is stubbed in memory, so the order save numbers exclude
+ * the database round trip of the products existence check.
+ * 
+ * @author SayedBaladoh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+	@Param({ "10", "100" })
+	private int numberOfItems;
+
+	private ExecutorService validationExecutor;
+
+	private ValidationContext validationContext;
+
+	private OrderDto orderDto;
+
+	private Order order;
+
+	@Setup
+	public void setUp() {
+		ProductService productService = (ProductService) Proxy.newProxyInstance(
+				ProductService.class.getClassLoader(), new Class<?>[] { ProductService.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("getMissingProductIds"))
+						return Collections.emptySet();
+					throw new UnsupportedOperationException(method.getName());
+				});
+
+		AvailabilityValidator availabilityValidator = new AvailabilityValidator();
+		ReflectionTestUtils.setField(availabilityValidator, "messagePreFix", "These basket items are not available: ");
+		ProductsExistenceValidator productsExistenceValidator = new ProductsExistenceValidator(productService);
+		ReflectionTestUtils.setField(productsExistenceValidator, "messagePreFix", "No products are found with Ids: ");
+		FraudVelocityServiceImpl fraudVelocityService = new FraudVelocityServiceImpl(new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(fraudVelocityService, "maximumUsers", 1000L);
+		fraudVelocityService.init();
+		CheckoutRuleEngine checkoutRuleEngine = new CheckoutRuleEngine(new DefaultResourceLoader(),
+				fraudVelocityService);
+		ReflectionTestUtils.setField(checkoutRuleEngine, "location", "classpath:rules/checkout-rules.properties");
+		checkoutRuleEngine.init();
+
+		validationExecutor = Executors.newFixedThreadPool(4);
+		validationContext = new ValidationContext(new ValidationStrategyFactory(
+				Set.of(availabilityValidator, productsExistenceValidator), List.of(checkoutRuleEngine)),
+				validationExecutor);
+
+		orderDto = BenchmarkData.orderDto(numberOfItems);
+		order = BenchmarkData.order(1, BenchmarkData.user(1), numberOfItems);
+	}
+
+	@TearDown
+	public void tearDown() {
+		validationExecutor.shutdown();
+	}
+
+	@Benchmark
+	public Set<ValidationViolation> orderSave() {
+		return validationContext.execute(ValidationDomain.ORDER_SAVE, orderDto);
+	}
+
+	@Benchmark
+	public Set<ValidationViolation> checkOut() {
+		return validationContext.execute(ValidationDomain.CHECK_OUT, order);
+	}
+}
@@ -0,0 +1,33 @@
+package com.sayedbaladoh.ecommerce.config.executor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+@Configuration
+public class CheckoutExecutorConfig {
+
+	/*
+	 * Bounded executor of the asynchronous checkouts. When its queue is full the
+	 * checkouts are rejected instead of piling up behind a slow payment gateway.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService checkoutExecutor(MeterRegistry meterRegistry,
+			@Value("${app.checkout.executor.poolSize:8}") int poolSize,
+			@Value("${app.checkout.executor.queueCapacity:100}") int queueCapacity) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("checkout-"),
+				new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return ExecutorServiceMetrics.monitor(meterRegistry, executor, "checkout");
+	}
+}
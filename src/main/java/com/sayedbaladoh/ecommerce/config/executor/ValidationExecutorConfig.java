@@ -0,0 +1,33 @@
+package com.sayedbaladoh.ecommerce.config.executor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+@Configuration
+public class ValidationExecutorConfig {
+
+	/*
+	 * Bounded executor of the I/O bound validations. When its queue is full the
+	 * validation runs on the calling thread, it is slower but never rejected.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService validationExecutor(MeterRegistry meterRegistry,
+			@Value("${app.validation.executor.poolSize:8}") int poolSize,
+			@Value("${app.validation.executor.queueCapacity:100}") int queueCapacity) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("validation-"),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return ExecutorServiceMetrics.monitor(meterRegistry, executor, "validation");
+	}
+}
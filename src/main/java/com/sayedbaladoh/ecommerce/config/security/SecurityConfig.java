@@ -104,6 +104,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .permitAll()
                 .antMatchers("/auth/**")
                 .permitAll()
+                .antMatchers("/actuator/metrics/**")
+                .hasRole("ADMIN")
                 .antMatchers(AUTH_WHITELIST)
                 .permitAll()
                 .anyRequest()
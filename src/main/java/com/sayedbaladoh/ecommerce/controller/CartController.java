@@ -0,0 +1,115 @@
+package com.sayedbaladoh.ecommerce.controller;
+
+import javax.validation.Valid;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.sayedbaladoh.ecommerce.dto.cart.CartDto;
+import com.sayedbaladoh.ecommerce.dto.common.ApiAuthorization;
+import com.sayedbaladoh.ecommerce.dto.common.ApiResponse;
+import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
+import com.sayedbaladoh.ecommerce.security.CurrentUser;
+import com.sayedbaladoh.ecommerce.security.UserPrincipal;
+import com.sayedbaladoh.ecommerce.service.CartService;
+import com.sayedbaladoh.ecommerce.service.IdempotencyService;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import springfox.documentation.annotations.ApiIgnore;
+
+/**
+ * Cart Rest Controller
+ * 
+ * @author SayedBaladoh
+ */
+@Api(value = "Cart", description = "Current user's cart operations APIs", tags = { "Cart" })
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/cart")
+public class CartController {
+
+	private final CartService cartService;
+	private final IdempotencyService idempotencyService;
+
+	@ApiOperation(value = "Return the cart of the current user", nickname = "getCart", notes = "Get the items of the current user's cart", tags = {
+			"Cart" }, response = CartDto.class)
+	@ApiAuthorization
+	@GetMapping(produces = { "application/json" })
+	public ResponseEntity<CartDto> getCart(@ApiIgnore @CurrentUser UserPrincipal currentUser) {
+
+		return new ResponseEntity<>(cartService.getCart(currentUser.getId()), HttpStatus.OK);
+	}
+
+	@ApiOperation(value = "Add an item to the cart", nickname = "addCartItem", notes = "Add a product quantity to the current user's cart", tags = {
+			"Cart" }, response = CartDto.class)
+	@ApiAuthorization
+	@PostMapping(value = "/items", consumes = { "application/json" })
+	public ResponseEntity<CartDto> addItem(@ApiIgnore @CurrentUser UserPrincipal currentUser,
+			@Valid @RequestBody OrderItemDto item) {
+
+		return new ResponseEntity<>(cartService.addItem(currentUser.getId(), item), HttpStatus.OK);
+	}
+
+	@ApiOperation(value = "Edit a cart item quantity", nickname = "updateCartItem", notes = "Update the quantity of a product in the current user's cart", tags = {
+			"Cart" }, response = CartDto.class)
+	@ApiAuthorization
+	@PutMapping(value = "/items/{productId}", produces = { "application/json" })
+	public ResponseEntity<CartDto> updateItem(@ApiIgnore @CurrentUser UserPrincipal currentUser,
+			@PathVariable("productId") Long productId, @RequestParam("quantity") int quantity) {
+
+		return new ResponseEntity<>(cartService.updateItem(currentUser.getId(), productId, quantity), HttpStatus.OK);
+	}
+
+	@ApiOperation(value = "Remove an item from the cart", nickname = "removeCartItem", notes = "Remove a product from the current user's cart", tags = {
+			"Cart" }, response = CartDto.class)
+	@ApiAuthorization
+	@DeleteMapping(value = "/items/{productId}", produces = { "application/json" })
+	public ResponseEntity<CartDto> removeItem(@ApiIgnore @CurrentUser UserPrincipal currentUser,
+			@PathVariable("productId") Long productId) {
+
+		return new ResponseEntity<>(cartService.removeItem(currentUser.getId(), productId), HttpStatus.OK);
+	}
+
+	@ApiOperation(value = "Empty the cart", nickname = "clearCart", notes = "Remove all the items of the current user's cart", tags = {
+			"Cart" })
+	@ApiAuthorization
+	@DeleteMapping
+	public ResponseEntity<Void> clearCart(@ApiIgnore @CurrentUser UserPrincipal currentUser) {
+
+		cartService.clear(currentUser.getId());
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@ApiOperation(value = "Order the cart items", nickname = "placeCartOrder", notes = "Add a new order of the current user's cart items and empty the cart", tags = {
+			"Cart" }, response = ApiResponse.class)
+	@ApiAuthorization
+	@PostMapping("/orders")
+	public ResponseEntity<ApiResponse> placeOrder(@ApiIgnore @CurrentUser UserPrincipal currentUser,
+			@RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+
+		return idempotencyService.execute(idempotencyKey, "POST /cart/orders user " + currentUser.getId(), null, () -> {
+			OrderResponseDto order = cartService.placeOrder(currentUser.getId());
+			HttpHeaders headers = new HttpHeaders();
+			headers.add("Location", ServletUriComponentsBuilder.fromCurrentServletMapping().path("/orders/{id}")
+					.buildAndExpand(order.getId()).toString());
+
+			return new ResponseEntity<>(new ApiResponse(true, "Order has been saved with id: " + order.getId()),
+					headers, HttpStatus.CREATED);
+		});
+	}
+}
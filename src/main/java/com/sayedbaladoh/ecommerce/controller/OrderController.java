@@ -11,18 +11,23 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.sayedbaladoh.ecommerce.dto.common.ApiAuthorization;
 import com.sayedbaladoh.ecommerce.dto.common.ApiPageableAuthorization;
 import com.sayedbaladoh.ecommerce.dto.common.ApiResponse;
+import com.sayedbaladoh.ecommerce.dto.common.CursorPage;
 import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
 import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
 import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
 import com.sayedbaladoh.ecommerce.security.CurrentUser;
 import com.sayedbaladoh.ecommerce.security.UserPrincipal;
+import com.sayedbaladoh.ecommerce.service.CheckoutService;
+import com.sayedbaladoh.ecommerce.service.IdempotencyService;
 import com.sayedbaladoh.ecommerce.service.OrderService;
 
 import io.swagger.annotations.Api;
@@ -42,6 +47,8 @@ import springfox.documentation.annotations.ApiIgnore;
 public class OrderController {
 
 	private final OrderService orderService;
+	private final CheckoutService checkoutService;
+	private final IdempotencyService idempotencyService;
 
 	@ApiOperation(value = "Return paginated list of orders", nickname = "getAllOrders", notes = "Get paginated list of orders", tags = {
 			"Orders" }, response = Page.class)
@@ -64,6 +71,28 @@ public class OrderController {
 		return new ResponseEntity<>(orders, HttpStatus.OK);
 	}
 
+	@ApiOperation(value = "Return a slice of orders after a cursor", nickname = "scrollOrders", notes = "Get the orders slice following the cursor, newest first, without a cursor the first slice", tags = {
+			"Orders" }, response = CursorPage.class)
+	@ApiAuthorization
+	@GetMapping(value = "/scroll", produces = { "application/json" })
+	public ResponseEntity<CursorPage<OrderResponseDto>> scrollOrders(
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "size", defaultValue = "20") int size) {
+
+		return new ResponseEntity<>(orderService.getOrders(cursor, size), HttpStatus.OK);
+	}
+
+	@ApiOperation(value = "Return a slice of orders after a cursor for current user", nickname = "scrollUserOrders", notes = "Get the current user's orders slice following the cursor, newest first, without a cursor the first slice", tags = {
+			"Orders" }, response = CursorPage.class)
+	@ApiAuthorization
+	@GetMapping(value = "/me/scroll", produces = { "application/json" })
+	public ResponseEntity<CursorPage<OrderResponseDto>> scrollUserOrders(@ApiIgnore @CurrentUser UserPrincipal currentUser,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "size", defaultValue = "20") int size) {
+
+		return new ResponseEntity<>(orderService.getOrders(currentUser.getId(), cursor, size), HttpStatus.OK);
+	}
+
 	@ApiOperation(value = "Return an order details", nickname = "getOrder", notes = "Get an order details", tags = {
 			"Orders" }, response = OrderResponseDto.class)
 	@ApiAuthorization
@@ -78,17 +107,20 @@ public class OrderController {
 	@ApiAuthorization
 	@PostMapping(consumes = { "application/json" })
 	public ResponseEntity<ApiResponse> addOrder(@Valid @RequestBody OrderDto orderDto,
-			@ApiIgnore @CurrentUser UserPrincipal currentUser) {
+			@ApiIgnore @CurrentUser UserPrincipal currentUser,
+			@RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
-		OrderResponseDto order = orderService.addOrder(currentUser.getId(), orderDto);
+		return idempotencyService.execute(idempotencyKey, "POST /orders user " + currentUser.getId(), orderDto, () -> {
+			OrderResponseDto order = orderService.addOrder(currentUser.getId(), orderDto);
 
-		String uri = ServletUriComponentsBuilder.fromCurrentServletMapping().path("/orders/{id}")
-				.buildAndExpand(order.getId()).toString();
-		HttpHeaders headers = new HttpHeaders();
-		headers.add("Location", uri);
+			String uri = ServletUriComponentsBuilder.fromCurrentServletMapping().path("/orders/{id}")
+					.buildAndExpand(order.getId()).toString();
+			HttpHeaders headers = new HttpHeaders();
+			headers.add("Location", uri);
 
-		return new ResponseEntity<>(new ApiResponse(true, "Order has been saved with id: " + order.getId()),
-				HttpStatus.CREATED);
+			return new ResponseEntity<>(new ApiResponse(true, "Order has been saved with id: " + order.getId()),
+					HttpStatus.CREATED);
+		});
 
 	}
 
@@ -96,9 +128,54 @@ public class OrderController {
 			"Order Basket Checkout" }, response = CheckoutSession.class)
 	@ApiAuthorization
 	@PostMapping("/{orderId}/checkout/sessions")
-	public ResponseEntity<CheckoutSession> checkoutOrder(@PathVariable("orderId") Long orderId) {
+	public ResponseEntity<CheckoutSession> checkoutOrder(@PathVariable("orderId") Long orderId,
+			@RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+
+		return idempotencyService.execute(idempotencyKey, "POST /orders/" + orderId + "/checkout/sessions", null,
+				() -> new ResponseEntity<>(orderService.createCheckoutSession(orderId), HttpStatus.OK));
+	}
+
+	@ApiOperation(value = "Checkout an order asynchronously", nickname = "checkoutExistOrderAsync", notes = "Start the checkout of exist order, its session is polled from the Location URL", tags = {
+			"Order Basket Checkout" }, response = ApiResponse.class)
+	@ApiAuthorization
+	@PostMapping(value = "/{orderId}/checkout/sessions", params = "async=true")
+	public ResponseEntity<ApiResponse> checkoutOrderAsync(@PathVariable("orderId") Long orderId,
+			@RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+
+		return idempotencyService.execute(idempotencyKey, "POST /orders/" + orderId + "/checkout/sessions?async=true",
+				null, () -> {
+					checkoutService.submitCheckoutSession(orderId);
+
+					HttpHeaders headers = new HttpHeaders();
+					headers.setLocation(ServletUriComponentsBuilder.fromCurrentServletMapping()
+							.path("/orders/{orderId}/checkout/sessions/current").buildAndExpand(orderId).toUri());
+
+					return new ResponseEntity<>(
+							new ApiResponse(true, "Checkout of order " + orderId + " is in progress"), headers,
+							HttpStatus.ACCEPTED);
+				});
+	}
+
+	@ApiOperation(value = "Return the checkout session of an order", nickname = "getCheckoutSession", notes = "Get the session of an asynchronous checkout, 202 while it is in progress", tags = {
+			"Order Basket Checkout" }, response = CheckoutSession.class)
+	@ApiAuthorization
+	@GetMapping(value = "/{orderId}/checkout/sessions/current", produces = { "application/json" })
+	public ResponseEntity<?> getCheckoutSession(@PathVariable("orderId") Long orderId) {
+
+		return checkoutService.getCheckoutSession(orderId)
+				.<ResponseEntity<?>>map(checkoutSession -> new ResponseEntity<>(checkoutSession, HttpStatus.OK))
+				.orElseGet(() -> new ResponseEntity<>(
+						new ApiResponse(true, "Checkout of order " + orderId + " is in progress"),
+						HttpStatus.ACCEPTED));
+	}
+
+	@ApiOperation(value = "Confirm the payment of an order", nickname = "confirmPayment", notes = "Called back once the checkout session of the order is paid, marks the order paid", tags = {
+			"Order Basket Checkout" }, response = OrderResponseDto.class)
+	@ApiAuthorization
+	@PostMapping(value = "/{orderId}/payment", produces = { "application/json" })
+	public ResponseEntity<OrderResponseDto> confirmPayment(@PathVariable("orderId") Long orderId) {
 
-		return new ResponseEntity<>(orderService.createCheckoutSession(orderId), HttpStatus.OK);
+		return new ResponseEntity<>(orderService.confirmPayment(orderId), HttpStatus.OK);
 	}
 
 //	@ApiOperation(value = "Checkout a new order for the current user", nickname = "checkoutNewOrder", notes = "Checkout a new order for the current user", tags = {
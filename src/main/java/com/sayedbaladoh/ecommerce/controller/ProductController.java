@@ -1,5 +1,12 @@
 package com.sayedbaladoh.ecommerce.controller;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import javax.validation.Valid;
 
 import org.springframework.data.domain.Page;
@@ -13,13 +20,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.sayedbaladoh.ecommerce.dto.common.ApiAuthorization;
 import com.sayedbaladoh.ecommerce.dto.common.ApiPageableAuthorization;
+import com.sayedbaladoh.ecommerce.dto.common.CursorPage;
+import com.sayedbaladoh.ecommerce.dto.common.FacetedPage;
 import com.sayedbaladoh.ecommerce.dto.product.ProductRequestDto;
 import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
+import com.sayedbaladoh.ecommerce.service.ProductSearchService;
 import com.sayedbaladoh.ecommerce.service.ProductService;
 
 import io.swagger.annotations.Api;
@@ -39,6 +50,7 @@ import springfox.documentation.annotations.ApiIgnore;
 public class ProductController {
 
 	private final ProductService productService;
+	private final ProductSearchService productSearchService;
 
 	@ApiOperation(value = "Return paginated list of products", nickname = "getAllProducts", notes = "Get paginated list of products", tags = {
 			"Products" }, response = Page.class)
@@ -50,6 +62,49 @@ public class ProductController {
 		return new ResponseEntity<>(products, HttpStatus.OK);
 	}
 
+	@ApiOperation(value = "Return paginated list of products with facet counts", nickname = "getFacetedProducts", notes = "Get paginated list of the products filtered by availability and price buckets (e.g. price=10-50), with the count of products of each facet value", tags = {
+			"Products" }, response = FacetedPage.class)
+	@ApiPageableAuthorization
+	@GetMapping(params = "facets=true", produces = { "application/json" })
+	public ResponseEntity<FacetedPage<ProductResponseDto>> getFacetedProducts(
+			@RequestParam(value = "available", required = false) Boolean available,
+			@RequestParam(value = "price", required = false) List<String> priceBuckets,
+			@ApiIgnore Pageable pageable) {
+
+		Map<String, Set<String>> filters = new LinkedHashMap<>();
+		if (available != null)
+			filters.put(ProductSearchService.FACET_AVAILABLE, Collections.singleton(available.toString()));
+		if (priceBuckets != null && !priceBuckets.isEmpty())
+			filters.put(ProductSearchService.FACET_PRICE, new HashSet<>(priceBuckets));
+
+		return new ResponseEntity<>(productSearchService.browse(filters, pageable), HttpStatus.OK);
+	}
+
+	@ApiOperation(value = "Search the products", nickname = "searchProducts", notes = "Get paginated list of the products matching the query terms (or their prefixes) in their name or description, ranked by relevance", tags = {
+			"Products" }, response = Page.class)
+	@ApiPageableAuthorization
+	@GetMapping(value = "/search", produces = { "application/json" })
+	public ResponseEntity<Page<ProductResponseDto>> searchProducts(
+			@RequestParam(value = "q", required = false) String query,
+			@RequestParam(value = "available", required = false) Boolean available,
+			@RequestParam(value = "minPrice", required = false) Double minPrice,
+			@RequestParam(value = "maxPrice", required = false) Double maxPrice, @ApiIgnore Pageable pageable) {
+
+		return new ResponseEntity<>(productSearchService.search(query, available, minPrice, maxPrice, pageable),
+				HttpStatus.OK);
+	}
+
+	@ApiOperation(value = "Return a slice of products after a cursor", nickname = "scrollProducts", notes = "Get the products slice following the cursor, without a cursor the first slice", tags = {
+			"Products" }, response = CursorPage.class)
+	@ApiAuthorization
+	@GetMapping(value = "/scroll", produces = { "application/json" })
+	public ResponseEntity<CursorPage<ProductResponseDto>> scrollProducts(
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "size", defaultValue = "20") int size) {
+
+		return new ResponseEntity<>(productService.getProducts(cursor, size), HttpStatus.OK);
+	}
+
 	@ApiOperation(value = "Return a product details", nickname = "getProduct", notes = "Get a product details", tags = {
 			"Products" }, response = ProductResponseDto.class)
 	@ApiAuthorization
@@ -0,0 +1,16 @@
+package com.sayedbaladoh.ecommerce.dto.cart;
+
+import java.util.List;
+
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CartDto {
+	private List<OrderItemDto> items;
+}
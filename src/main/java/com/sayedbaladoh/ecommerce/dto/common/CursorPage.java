@@ -0,0 +1,21 @@
+package com.sayedbaladoh.ecommerce.dto.common;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * A slice of a keyset paginated list, the next slice is requested with the
+ * opaque nextCursor. No count query is run, so there is no total.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+	private List<T> content;
+	private int size;
+	private boolean hasNext;
+	private String nextCursor;
+}
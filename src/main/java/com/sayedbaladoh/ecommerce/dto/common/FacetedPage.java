@@ -0,0 +1,27 @@
+package com.sayedbaladoh.ecommerce.dto.common;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import lombok.Getter;
+
+/*
+ * A page of results with the count of the results of each facet value (e.g.
+ * facets.price["10-50"]), serialized as a page with an additional facets
+ * property.
+ */
+@Getter
+public class FacetedPage<T> extends PageImpl<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Map<String, Map<String, Long>> facets;
+
+	public FacetedPage(List<T> content, Pageable pageable, long total, Map<String, Map<String, Long>> facets) {
+		super(content, pageable, total);
+		this.facets = facets;
+	}
+}
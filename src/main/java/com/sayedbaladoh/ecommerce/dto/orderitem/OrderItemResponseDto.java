@@ -7,5 +7,6 @@ import lombok.Data;
 @Data
 public class OrderItemResponseDto {
 	private int quantity;
+	private double unitPrice;
 	private ProductResponseDto product;
 }
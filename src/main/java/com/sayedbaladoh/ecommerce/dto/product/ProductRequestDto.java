@@ -16,6 +16,7 @@ public class ProductRequestDto {
 	private @NotNull String name;
 	private @NotNull double price;
 	private boolean available;
+	private Integer stock;
 	private String imageURL;
 	private String description;
 
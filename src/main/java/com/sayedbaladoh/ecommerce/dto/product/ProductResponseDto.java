@@ -9,6 +9,7 @@ public class ProductResponseDto {
 	private String name;
 	private double price;
 	private boolean available;
+	private Integer stock;
 	private String imageURL;
 	private String description;
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.sayedbaladoh.ecommerce.exception;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 
 import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -81,6 +84,28 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler(PaymentGatewayUnavailableException.class)
+	public ResponseEntity<ErrorItem> handle(PaymentGatewayUnavailableException e) {
+		log.warn(e.getMessage());
+		ErrorItem error = new ErrorItem();
+		error.setMessage(e.getMessage());
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, "30");
+		return new ResponseEntity<>(error, headers, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<ErrorItem> handle(RejectedExecutionException e) {
+		log.warn(e.getMessage());
+		ErrorItem error = new ErrorItem();
+		error.setMessage("The service is busy, please retry later.");
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, "1");
+		return new ResponseEntity<>(error, headers, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
 	@SuppressWarnings("rawtypes")
 	@ExceptionHandler(ConstraintViolationException.class)
 	public ResponseEntity<ErrorResponse> handle(ConstraintViolationException e) {
@@ -0,0 +1,14 @@
+package com.sayedbaladoh.ecommerce.exception;
+
+public class PaymentGatewayUnavailableException extends PaymentGetwayException {
+
+	private static final long serialVersionUID = 4387104356228169235L;
+
+	public PaymentGatewayUnavailableException(final String message, final Throwable cause) {
+		super(message, cause);
+	}
+
+	public PaymentGatewayUnavailableException(final String message) {
+		super(message);
+	}
+}
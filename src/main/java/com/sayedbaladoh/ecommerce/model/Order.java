@@ -9,20 +9,22 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
-import javax.persistence.Transient;
 import javax.validation.Valid;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.sayedbaladoh.ecommerce.enums.OrderStatus;
+import com.sayedbaladoh.ecommerce.model.generator.PooledSequenceGenerator;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -32,11 +34,15 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = { @Index(name = "idx_orders_created_date_id", columnList = "created_date, id"),
+		@Index(name = "idx_orders_user_id_created_date_id", columnList = "user_id, created_date, id"),
+		@Index(name = "idx_orders_status", columnList = "status") })
 public class Order {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "orders_generator")
+	@GenericGenerator(name = "orders_generator", strategy = PooledSequenceGenerator.STRATEGY, parameters = @Parameter(
+			name = PooledSequenceGenerator.SEQUENCE_PARAM, value = "orders_seq"))
 	private Long id;
 
 	@Enumerated(EnumType.STRING)
@@ -46,6 +52,12 @@ public class Order {
 	@OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
 	private List<OrderItem> orderItems;
 
+	@Column(name = "subtotal_in_cents", nullable = false)
+	private long subtotalInCents;
+
+	@Column(name = "item_count", nullable = false)
+	private int itemCount;
+
 	@Column(name = "session_id")
 	private String sessionId;
 
@@ -62,13 +74,15 @@ public class Order {
 	@Column(name = "updated_date")
 	private Date updatedDate;
 
-	@Transient
-	public double getTotalOrderPrice() {
-		return getOrderItems().stream().mapToDouble(item -> item.getTotalPrice()).sum();
-	}
-
-	@Transient
-	public int getNumberOfProducts() {
-		return this.orderItems.size();
+	/*
+	 * Snapshots the subtotal and the items count when the order items are
+	 * written, so listing and validating orders never need to load its items.
+	 */
+	public void calculateTotals() {
+		long totalPriceInCents = 0;
+		for (OrderItem item : getOrderItems())
+			totalPriceInCents = Math.addExact(totalPriceInCents, item.getTotalPriceInCents());
+		this.subtotalInCents = totalPriceInCents;
+		this.itemCount = getOrderItems().size();
 	}
 }
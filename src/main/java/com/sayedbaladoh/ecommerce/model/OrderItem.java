@@ -4,8 +4,8 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
@@ -13,6 +13,12 @@ import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import com.sayedbaladoh.ecommerce.model.generator.PooledSequenceGenerator;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,17 +27,27 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = { @Index(name = "idx_order_items_order_id", columnList = "order_id"),
+		@Index(name = "idx_order_items_product_id", columnList = "product_id") })
 public class OrderItem {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "order_items_generator")
+	@GenericGenerator(name = "order_items_generator", strategy = PooledSequenceGenerator.STRATEGY, parameters = @Parameter(
+			name = PooledSequenceGenerator.SEQUENCE_PARAM, value = "order_items_seq"))
 	private Long id;
 
 	@NotNull
 	@Column(nullable = false)
 	private Integer quantity;
 
+	/*
+	 * The product price when the item was ordered, later product price changes
+	 * do not change the order total.
+	 */
+	@Column(name = "unit_price_in_cents", nullable = false)
+	private long unitPriceInCents;
+
 	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "order_id", referencedColumnName = "id")
 	private Order order;
@@ -44,11 +60,13 @@ public class OrderItem {
 		this.order = order;
 		this.product = product;
 		this.quantity = quantity;
+		if (product != null)
+			this.unitPriceInCents = product.getPriceInCents();
 	}
 
 	@Transient
-	public double getTotalPrice() {
-		return getProduct().getPrice() * getQuantity();
+	public long getTotalPriceInCents() {
+		return MoneyUtil.multiply(getUnitPriceInCents(), getQuantity());
 	}
 
 }
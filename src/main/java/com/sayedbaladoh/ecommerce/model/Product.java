@@ -5,14 +5,17 @@ import java.util.Date;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.sayedbaladoh.ecommerce.model.generator.PooledSequenceGenerator;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -25,17 +28,25 @@ import lombok.NoArgsConstructor;
 public class Product {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "products_generator")
+	@GenericGenerator(name = "products_generator", strategy = PooledSequenceGenerator.STRATEGY, parameters = @Parameter(
+			name = PooledSequenceGenerator.SEQUENCE_PARAM, value = "products_seq"))
 	private Long id;
 
 	@NotNull(message = "Product name is required.")
 	private String name;
 
-	@NotNull
-	private double price;
+	@Column(name = "price_in_cents", nullable = false)
+	private long priceInCents;
 
 	private boolean available;
 
+	/*
+	 * Units in stock not reserved by the checked out orders, null when the stock
+	 * of the product is not tracked.
+	 */
+	private Integer stock;
+
 	@Column(name = "image_url")
 	private String imageURL;
 
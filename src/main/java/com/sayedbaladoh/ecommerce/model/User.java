@@ -7,7 +7,6 @@ import java.util.Set;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
@@ -18,7 +17,11 @@ import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.Parameter;
+
+import com.sayedbaladoh.ecommerce.model.generator.PooledSequenceGenerator;
 
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -32,7 +35,9 @@ import lombok.Setter;
 public class User implements Serializable {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "users_generator")
+	@GenericGenerator(name = "users_generator", strategy = PooledSequenceGenerator.STRATEGY, parameters = @Parameter(
+			name = PooledSequenceGenerator.SEQUENCE_PARAM, value = "users_seq"))
 	private Long id;
 
 	@NotBlank
@@ -0,0 +1,32 @@
+package com.sayedbaladoh.ecommerce.model.generator;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence based id generator using the pooled-lo optimizer.
+ * 
+ * The allocation size (ids reserved per sequence call) must be the increment
+ * of the sequences in the db/migration scripts, so it is fixed to
+ * {@value #ALLOCATION_SIZE} along them rather than configured. It matches the
+ * JDBC batch size.
+ * 
+ * @author SayedBaladoh
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	public static final String STRATEGY = "com.sayedbaladoh.ecommerce.model.generator.PooledSequenceGenerator";
+
+	public static final int ALLOCATION_SIZE = 50;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		params.putIfAbsent(INCREMENT_PARAM, String.valueOf(ALLOCATION_SIZE));
+		params.putIfAbsent(OPT_PARAM, "pooled-lo");
+		super.configure(type, params, serviceRegistry);
+	}
+}
@@ -1,14 +1,78 @@
 package com.sayedbaladoh.ecommerce.repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.sayedbaladoh.ecommerce.enums.OrderStatus;
 import com.sayedbaladoh.ecommerce.model.Order;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
 	Page<Order> findAllByUserId(Long userId, Pageable pageable);
+
+	/*
+	 * First phase of the order listing: page over the order ids only, so the
+	 * pagination and sorting are done without loading any association.
+	 */
+	@Query(value = "select o.id from Order o", countQuery = "select count(o) from Order o")
+	Page<Long> findAllIds(Pageable pageable);
+
+	@Query(value = "select o.id from Order o where o.user.id = :userId", countQuery = "select count(o) from Order o where o.user.id = :userId")
+	Page<Long> findAllIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+	/*
+	 * Keyset variants of the first phase, newest orders first. The slices are
+	 * read without any count query and seek past the (created date, id) of the
+	 * last read order, so deep slices cost the same as the first one.
+	 */
+	@Query("select o.id from Order o order by o.createdDate desc, o.id desc")
+	Slice<Long> findSliceIds(Pageable pageable);
+
+	@Query("select o.id from Order o where o.createdDate < :createdDate or (o.createdDate = :createdDate and o.id < :id) "
+			+ "order by o.createdDate desc, o.id desc")
+	Slice<Long> findSliceIdsBefore(@Param("createdDate") Date createdDate, @Param("id") Long id, Pageable pageable);
+
+	@Query("select o.id from Order o where o.user.id = :userId order by o.createdDate desc, o.id desc")
+	Slice<Long> findSliceIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+	@Query("select o.id from Order o where o.user.id = :userId and (o.createdDate < :createdDate "
+			+ "or (o.createdDate = :createdDate and o.id < :id)) order by o.createdDate desc, o.id desc")
+	Slice<Long> findSliceIdsByUserIdBefore(@Param("userId") Long userId, @Param("createdDate") Date createdDate,
+			@Param("id") Long id, Pageable pageable);
+
+	/*
+	 * Second phase of the order listing: load the orders of a page with their
+	 * user, items and items products in a single select.
+	 */
+	@EntityGraph(attributePaths = { "user", "orderItems", "orderItems.product" })
+	@Query("select distinct o from Order o where o.id in :ids")
+	List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+	/*
+	 * Loads an order ready for the checkout, so the payment gateway can read its
+	 * items out of the transaction.
+	 */
+	@EntityGraph(attributePaths = { "user", "orderItems", "orderItems.product" })
+	Optional<Order> findWithItemsById(Long id);
+
+	/*
+	 * Moves an order from a status to another one, the update count tells the
+	 * concurrent callers which one made the transition.
+	 */
+	@Modifying
+	@Query("update Order o set o.status = :to where o.id = :id and o.status = :from")
+	int updateStatus(@Param("id") Long id, @Param("from") OrderStatus from, @Param("to") OrderStatus to);
 }
@@ -1,11 +1,56 @@
 package com.sayedbaladoh.ecommerce.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.sayedbaladoh.ecommerce.model.Product;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+	/*
+	 * Keyset pagination over the products ids, the slices are read without any
+	 * count query and seek past the last read id instead of skipping rows.
+	 */
+	Slice<Product> findAllByOrderByIdAsc(Pageable pageable);
+
+	Slice<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+	@Query("select p.id from Product p where p.id in :ids")
+	Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+	@Query("select p.id as id, p.stock as stock from Product p where p.id in :ids")
+	List<ProductStock> findStocksByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select p.id as id, p.priceInCents as priceInCents from Product p where p.id in :ids")
+	List<ProductPrice> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Transactional
+	@Modifying
+	@Query("update Product p set p.stock = :stock where p.id = :id")
+	int updateStock(@Param("id") Long id, @Param("stock") Integer stock);
+
+	interface ProductStock {
+
+		Long getId();
+
+		Integer getStock();
+	}
+
+	interface ProductPrice {
+
+		Long getId();
+
+		long getPriceInCents();
+	}
 }
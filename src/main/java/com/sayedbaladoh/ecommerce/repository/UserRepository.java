@@ -2,6 +2,7 @@ package com.sayedbaladoh.ecommerce.repository;
 
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -13,4 +14,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	Optional<User> findByEmail(String email);
 
 	Boolean existsByEmail(String email);
+
+	@EntityGraph(attributePaths = "roles")
+	Optional<User> findWithRolesById(Long id);
 }
@@ -1,23 +1,45 @@
 package com.sayedbaladoh.ecommerce.security;
 
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
 import com.sayedbaladoh.ecommerce.model.User;
 import com.sayedbaladoh.ecommerce.repository.UserRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private UserRepository userRepository;
 
+    /*
+     * Principals of the authenticated users by id, so the JWT requests do not
+     * load the user and its roles on every call.
+     */
+    private Cache<Long, UserPrincipal> userPrincipals;
+
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${app.userPrincipalCacheTtlInMs:300000}") long cacheTtlInMs,
+            @Value("${app.userPrincipalCacheMaximumSize:10000}") long cacheMaximumSize) {
         this.userRepository = userRepository;
+        this.userPrincipals = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtlInMs, TimeUnit.MILLISECONDS)
+                .maximumSize(cacheMaximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userPrincipals, "userPrincipals");
     }
 
     @Override
@@ -31,9 +53,24 @@ public class CustomUserDetailsService implements UserDetailsService {
         return UserPrincipal.create(user);
     }
 
-    @Transactional
     public UserDetails loadUserById(Long id) {
-        User user = userRepository.findById(id).orElseThrow(
+        return userPrincipals.get(id, this::loadUserPrincipal);
+    }
+
+    /*
+     * Invalidation hooks, to be called when the roles or the password of a user
+     * change so the next request loads the new principal.
+     */
+    public void evictUser(Long id) {
+        userPrincipals.invalidate(id);
+    }
+
+    public void evictAllUsers() {
+        userPrincipals.invalidateAll();
+    }
+
+    private UserPrincipal loadUserPrincipal(Long id) {
+        User user = userRepository.findWithRolesById(id).orElseThrow(
                 () -> new ResourceNotFoundException("User not found [id: " + id + "]")
         );
 
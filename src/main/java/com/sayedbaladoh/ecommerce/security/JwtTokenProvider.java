@@ -1,10 +1,23 @@
 package com.sayedbaladoh.ecommerce.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
@@ -13,6 +26,8 @@ import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.SignatureException;
 import io.jsonwebtoken.UnsupportedJwtException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
@@ -25,6 +40,23 @@ public class JwtTokenProvider {
     @Value("${app.jwtExpirationInMs}")
     private int jwtExpirationInMs;
 
+    @Value("${app.jwtCacheMaximumSize:10000}")
+    private long jwtCacheMaximumSize;
+
+    /*
+     * Recently verified tokens by their SHA-256 digest, each entry expires with
+     * its token.
+     */
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtCacheMaximumSize)
+                .expireAfter(new VerifiedTokenExpiry())
+                .build();
+    }
+
     public String generateToken(Authentication authentication) {
 
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
@@ -50,9 +82,16 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String authToken) {
+        return parseToken(authToken).isPresent();
+    }
+
+    /*
+     * Parses and verifies the token once and returns its claims, or empty if
+     * the token is not valid.
+     */
+    public Optional<Claims> parseToken(String authToken) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            return Optional.of(Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken).getBody());
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -64,6 +103,65 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty.");
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /*
+     * Returns the user id of a valid token. Tokens verified before are served
+     * from the cache without verifying their signature again.
+     */
+    public Optional<Long> getUserIdFromValidToken(String authToken) {
+        if (!StringUtils.hasText(authToken))
+            return Optional.empty();
+
+        String digest = digest(authToken);
+        VerifiedToken verifiedToken = verifiedTokens.getIfPresent(digest);
+        if (verifiedToken != null && verifiedToken.getExpiresAt() > System.currentTimeMillis())
+            return Optional.of(verifiedToken.getUserId());
+
+        return parseToken(authToken).map(claims -> {
+            Long userId = Long.parseLong(claims.getSubject());
+            if (claims.getExpiration() != null)
+                verifiedTokens.put(digest, new VerifiedToken(userId, claims.getExpiration().getTime()));
+            return userId;
+        });
+    }
+
+    private String digest(String authToken) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder()
+                    .encodeToString(messageDigest.digest(authToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class VerifiedToken {
+        private final Long userId;
+        private final long expiresAt;
+    }
+
+    private static class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken verifiedToken, long currentTime) {
+            return TimeUnit.MILLISECONDS
+                    .toNanos(Math.max(0, verifiedToken.getExpiresAt() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken verifiedToken, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(digest, verifiedToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken verifiedToken, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,25 @@
+package com.sayedbaladoh.ecommerce.service;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+import com.sayedbaladoh.ecommerce.dto.cart.CartDto;
+import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
+
+public interface CartService {
+
+	CartDto getCart(Long userId);
+
+	CartDto addItem(Long userId, @NotNull(message = "The cart item cannot be null.") @Valid OrderItemDto item);
+
+	CartDto updateItem(Long userId, Long productId, int quantity);
+
+	CartDto removeItem(Long userId, Long productId);
+
+	void clear(Long userId);
+
+	OrderResponseDto placeOrder(Long userId);
+
+	void snapshot();
+}
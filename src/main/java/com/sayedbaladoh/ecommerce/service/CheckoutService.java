@@ -0,0 +1,12 @@
+package com.sayedbaladoh.ecommerce.service;
+
+import java.util.Optional;
+
+import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
+
+public interface CheckoutService {
+
+	void submitCheckoutSession(Long orderId);
+
+	Optional<CheckoutSession> getCheckoutSession(Long orderId);
+}
@@ -0,0 +1,12 @@
+package com.sayedbaladoh.ecommerce.service;
+
+public interface FraudVelocityService {
+
+	void recordOrder(Long userId, long amountInCents);
+
+	long getOrdersLastMinute(Long userId);
+
+	long getSpendLastHourInCents(Long userId);
+
+	long getSpendLastDayInCents(Long userId);
+}
@@ -0,0 +1,15 @@
+package com.sayedbaladoh.ecommerce.service;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.ResponseEntity;
+
+public interface IdempotencyService {
+
+	String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+	String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+	<T> ResponseEntity<T> execute(String idempotencyKey, String scope, Object request,
+			Supplier<ResponseEntity<T>> action);
+}
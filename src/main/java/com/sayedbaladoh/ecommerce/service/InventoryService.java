@@ -0,0 +1,18 @@
+package com.sayedbaladoh.ecommerce.service;
+
+import com.sayedbaladoh.ecommerce.model.Order;
+
+public interface InventoryService {
+
+	void reserve(Order order);
+
+	void release(Long orderId);
+
+	boolean commit(Long orderId);
+
+	void resetStock(Long productId, Integer stock);
+
+	void releaseExpiredReservations();
+
+	void flush();
+}
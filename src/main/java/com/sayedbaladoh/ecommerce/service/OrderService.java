@@ -6,6 +6,7 @@ import javax.validation.constraints.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import com.sayedbaladoh.ecommerce.dto.common.CursorPage;
 import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
 import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
 import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
@@ -16,6 +17,10 @@ public interface OrderService {
 
 	Page<OrderResponseDto> getAllOrders(Long userId, Pageable pageable);
 
+	CursorPage<OrderResponseDto> getOrders(String cursor, int size);
+
+	CursorPage<OrderResponseDto> getOrders(Long userId, String cursor, int size);
+
 	OrderResponseDto getOrder(Long id);
 
 	OrderResponseDto addOrder(Long userId, @NotNull(message = "The order cannot be null.") @Valid OrderDto orderDto);
@@ -27,4 +32,6 @@ public interface OrderService {
 
 	CheckoutSession createCheckoutSession(Long orderId);
 
+	OrderResponseDto confirmPayment(Long orderId);
+
 }
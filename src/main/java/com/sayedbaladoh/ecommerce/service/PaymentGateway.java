@@ -5,5 +5,15 @@ import com.sayedbaladoh.ecommerce.model.Order;
 
 public interface PaymentGateway {
 
+	/*
+	 * Qualifier of the payment provider implementations, guarded by the primary
+	 * resilient payment gateway.
+	 */
+	String PROVIDER = "paymentProvider";
+
+	String PAYMENT_STATUS_PAID = "paid";
+
 	CheckoutSession createCheckoutSession(Order order);
+
+	String getPaymentStatus(String sessionId);
 }
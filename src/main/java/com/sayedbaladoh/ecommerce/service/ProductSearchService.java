@@ -0,0 +1,26 @@
+package com.sayedbaladoh.ecommerce.service;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.sayedbaladoh.ecommerce.dto.common.FacetedPage;
+import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
+import com.sayedbaladoh.ecommerce.model.Product;
+
+public interface ProductSearchService {
+
+	String FACET_AVAILABLE = "available";
+	String FACET_PRICE = "price";
+
+	Page<ProductResponseDto> search(String query, Boolean available, Double minPrice, Double maxPrice,
+			Pageable pageable);
+
+	FacetedPage<ProductResponseDto> browse(Map<String, Set<String>> filters, Pageable pageable);
+
+	void index(Product product);
+
+	void rebuild();
+}
@@ -1,10 +1,14 @@
 package com.sayedbaladoh.ecommerce.service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import com.sayedbaladoh.ecommerce.dto.common.CursorPage;
 import com.sayedbaladoh.ecommerce.dto.product.ProductRequestDto;
 import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
 import com.sayedbaladoh.ecommerce.model.Product;
@@ -13,10 +17,16 @@ public interface ProductService {
 
 	Page<ProductResponseDto> getAllProducts(Pageable pageable);
 
+	CursorPage<ProductResponseDto> getProducts(String cursor, int size);
+
 	ProductResponseDto getProductDto(long id);
 
+	List<ProductResponseDto> getProductDtos(List<Long> ids);
+
 	Optional<Product> getProduct(long id);
 
+	Set<Long> getMissingProductIds(Collection<Long> ids);
+
 	ProductResponseDto addProduct(ProductRequestDto product);
 
 	ProductResponseDto updateProduct(Long productID, ProductRequestDto productDto);
@@ -0,0 +1,224 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sayedbaladoh.ecommerce.dto.cart.CartDto;
+import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
+import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
+import com.sayedbaladoh.ecommerce.dto.product.ProductDto;
+import com.sayedbaladoh.ecommerce.exception.BadRequestException;
+import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
+import com.sayedbaladoh.ecommerce.service.CartService;
+import com.sayedbaladoh.ecommerce.service.OrderService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * In memory carts of the users, the quantity of each product by user, so the
+ * baskets are only written to the orders table when they are ordered. A cart
+ * expires when it is not used for its ttl, and above the maximum number of
+ * carts they are evicted by how often and how recently they are used
+ * (W-TinyLFU). Each change replaces the cart
+ * atomically. When a snapshot location is set, the carts are written there
+ * periodically and on shutdown, and read back on startup.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class CartServiceImpl implements CartService {
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final OrderService orderService;
+	private final MeterRegistry meterRegistry;
+
+	@Value("${app.cart.ttlInMs:86400000}")
+	private long ttlInMs;
+
+	@Value("${app.cart.maximumSize:100000}")
+	private long maximumSize;
+
+	@Value("${app.cart.maximumItems:50}")
+	private int maximumItems;
+
+	@Value("${app.cart.maximumQuantity:1000}")
+	private int maximumQuantity;
+
+	@Value("${app.cart.snapshotLocation:}")
+	private String snapshotLocation;
+
+	private Cache<Long, Map<Long, Integer>> carts;
+
+	@PostConstruct
+	public void init() {
+		carts = Caffeine.newBuilder()
+				.expireAfterAccess(ttlInMs, TimeUnit.MILLISECONDS)
+				.maximumSize(maximumSize)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, carts, "carts");
+		restore();
+	}
+
+	@Override
+	public CartDto getCart(Long userId) {
+		return toDto(carts.getIfPresent(userId));
+	}
+
+	@Override
+	public CartDto addItem(Long userId, OrderItemDto item) {
+		if (item.getProduct() == null || item.getProduct().getId() == null)
+			throw new BadRequestException("The cart item product cannot be null.");
+		checkQuantity(item.getQuantity());
+
+		return toDto(carts.asMap().compute(userId, (id, cart) -> {
+			Map<Long, Integer> items = cart == null ? new LinkedHashMap<>() : new LinkedHashMap<>(cart);
+			int quantity = items.merge(item.getProduct().getId(), item.getQuantity(), this::addQuantities);
+			checkQuantity(quantity);
+			if (items.size() > maximumItems)
+				throw new BadRequestException(String.format("The cart cannot have more than %d items.", maximumItems));
+			return Collections.unmodifiableMap(items);
+		}));
+	}
+
+	@Override
+	public CartDto updateItem(Long userId, Long productId, int quantity) {
+		checkQuantity(quantity);
+
+		return toDto(carts.asMap().compute(userId, (id, cart) -> {
+			if (cart == null || !cart.containsKey(productId))
+				throw new ResourceNotFoundException(
+						String.format("No item is found in the cart for product with id: %d.", productId));
+			Map<Long, Integer> items = new LinkedHashMap<>(cart);
+			items.put(productId, quantity);
+			return Collections.unmodifiableMap(items);
+		}));
+	}
+
+	@Override
+	public CartDto removeItem(Long userId, Long productId) {
+		return toDto(carts.asMap().computeIfPresent(userId, (id, cart) -> {
+			Map<Long, Integer> items = new LinkedHashMap<>(cart);
+			items.remove(productId);
+			return items.isEmpty() ? null : Collections.unmodifiableMap(items);
+		}));
+	}
+
+	@Override
+	public void clear(Long userId) {
+		carts.invalidate(userId);
+	}
+
+	/*
+	 * Takes the cart out before adding the order of its items, so a concurrent
+	 * submit finds it empty. The cart is given back when the order fails, merged
+	 * with the items added meanwhile.
+	 */
+	@Override
+	public OrderResponseDto placeOrder(Long userId) {
+		Map<Long, Integer> cart = carts.asMap().remove(userId);
+		if (cart == null)
+			throw new BadRequestException("The cart is empty.");
+
+		OrderDto orderDto = new OrderDto();
+		orderDto.setOrderItems(toDto(cart).getItems());
+		try {
+			return orderService.addOrder(userId, orderDto);
+		} catch (RuntimeException e) {
+			carts.asMap().merge(userId, cart, (current, removed) -> {
+				Map<Long, Integer> items = new LinkedHashMap<>(removed);
+				current.forEach((productId, quantity) -> items.merge(productId, quantity,
+						(first, second) -> Math.min(addQuantities(first, second), maximumQuantity)));
+				return Collections.unmodifiableMap(items);
+			});
+			throw e;
+		}
+	}
+
+	@Override
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${app.cart.snapshotIntervalInMs:60000}")
+	public void snapshot() {
+		if (!StringUtils.hasText(snapshotLocation))
+			return;
+
+		Path snapshot = Paths.get(snapshotLocation);
+		try {
+			Path directory = snapshot.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			Path temporary = Files.createTempFile(directory, snapshot.getFileName().toString(), ".tmp");
+			objectMapper.writeValue(temporary.toFile(), new LinkedHashMap<>(carts.asMap()));
+			Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.error("Cannot write the carts snapshot to {}", snapshotLocation, e);
+		}
+	}
+
+	/* The restored carts start a new ttl */
+	private void restore() {
+		if (!StringUtils.hasText(snapshotLocation) || !Files.exists(Paths.get(snapshotLocation)))
+			return;
+
+		try {
+			Map<Long, Map<Long, Integer>> snapshot = objectMapper.readValue(Paths.get(snapshotLocation).toFile(),
+					new TypeReference<Map<Long, Map<Long, Integer>>>() {
+					});
+			snapshot.forEach((userId, cart) -> carts.put(userId, Collections.unmodifiableMap(cart)));
+			log.info("Restored {} carts from {}", snapshot.size(), snapshotLocation);
+		} catch (IOException e) {
+			log.error("Cannot read the carts snapshot from {}", snapshotLocation, e);
+		}
+	}
+
+	private void checkQuantity(int quantity) {
+		if (quantity < 1)
+			throw new BadRequestException("The cart item quantity must be at least 1.");
+		if (quantity > maximumQuantity)
+			throw new BadRequestException(
+					String.format("The cart item quantity cannot be more than %d.", maximumQuantity));
+	}
+
+	/* Saturated sum of two quantities, an overflow is above any maximum quantity */
+	private int addQuantities(int first, int second) {
+		return (int) Math.min((long) first + second, Integer.MAX_VALUE);
+	}
+
+	private CartDto toDto(Map<Long, Integer> cart) {
+		if (cart == null)
+			return new CartDto(Collections.emptyList());
+
+		List<OrderItemDto> items = cart.entrySet().stream().map(entry -> {
+			OrderItemDto item = new OrderItemDto();
+			item.setQuantity(entry.getValue());
+			item.setProduct(new ProductDto(entry.getKey()));
+			return item;
+		}).collect(Collectors.toList());
+		return new CartDto(items);
+	}
+}
@@ -0,0 +1,88 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
+import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
+import com.sayedbaladoh.ecommerce.service.CheckoutService;
+import com.sayedbaladoh.ecommerce.service.OrderService;
+
+/*
+ * Asynchronous checkouts, run on the bounded checkout executor so the request
+ * threads are not blocked by the payment gateway. The checkout of an order is
+ * kept until it is polled or replaced, for at most the checkout result ttl.
+ */
+@Service
+public class CheckoutServiceImpl implements CheckoutService {
+
+	private final OrderService orderService;
+	private final ExecutorService checkoutExecutor;
+
+	@Value("${app.checkout.resultTtlInMs:600000}")
+	private long resultTtlInMs;
+
+	@Value("${app.checkout.resultMaximumSize:10000}")
+	private long resultMaximumSize;
+
+	private Cache<Long, CompletableFuture<CheckoutSession>> checkouts;
+
+	public CheckoutServiceImpl(OrderService orderService,
+			@Qualifier("checkoutExecutor") ExecutorService checkoutExecutor) {
+		this.orderService = orderService;
+		this.checkoutExecutor = checkoutExecutor;
+	}
+
+	@PostConstruct
+	public void init() {
+		checkouts = Caffeine.newBuilder()
+				.expireAfterWrite(resultTtlInMs, TimeUnit.MILLISECONDS)
+				.maximumSize(resultMaximumSize)
+				.build();
+	}
+
+	/*
+	 * Submits the checkout of the order, unless one is in progress or completed
+	 * and still kept, only a failed checkout is submitted again. The executor
+	 * rejects the checkout when it is full.
+	 */
+	@Override
+	public void submitCheckoutSession(Long orderId) {
+		checkouts.asMap().compute(orderId,
+				(id, checkout) -> checkout != null && !checkout.isCompletedExceptionally() ? checkout
+						: CompletableFuture.supplyAsync(() -> orderService.createCheckoutSession(id),
+								checkoutExecutor));
+	}
+
+	/*
+	 * Returns the checkout session of the order, empty while it is in progress.
+	 * A failed checkout throws its failure.
+	 */
+	@Override
+	public Optional<CheckoutSession> getCheckoutSession(Long orderId) {
+		CompletableFuture<CheckoutSession> checkout = checkouts.getIfPresent(orderId);
+		if (checkout == null)
+			throw new ResourceNotFoundException(String.format("No checkout is found for order with id: %d.", orderId));
+		if (!checkout.isDone())
+			return Optional.empty();
+
+		try {
+			return Optional.of(checkout.join());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+}
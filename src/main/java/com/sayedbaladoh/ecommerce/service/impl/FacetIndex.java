@@ -0,0 +1,99 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import org.roaringbitmap.RoaringBitmap;
+
+/*
+ * Compressed bitmaps of the document ids by facet value (e.g. available=true,
+ * price=10-50). Filters are resolved by bitmap unions within a facet and
+ * intersections across facets. Once published, the bitmaps are copied on
+ * write, so they are read without locking while the (rare) writes are
+ * serialized by the caller. Before, they are changed in place, so a rebuild does
+ * not copy them for each document.
+ */
+class FacetIndex {
+
+	private volatile RoaringBitmap allIds = new RoaringBitmap();
+
+	private volatile boolean published;
+
+	private final ConcurrentMap<String, ConcurrentMap<String, RoaringBitmap>> bitmaps = new ConcurrentHashMap<>();
+
+	void add(int id, Map<String, String> values, Map<String, String> previousValues) {
+		previousValues.forEach((facet, value) -> {
+			if (!value.equals(values.get(facet)))
+				update(facet, value, bitmap -> bitmap.remove(id));
+		});
+		values.forEach((facet, value) -> {
+			if (!value.equals(previousValues.get(facet)))
+				update(facet, value, bitmap -> bitmap.add(id));
+		});
+
+		if (!allIds.contains(id)) {
+			RoaringBitmap ids = published ? allIds.clone() : allIds;
+			ids.add(id);
+			allIds = ids;
+		}
+	}
+
+	/* To be called before the index is shared with its readers */
+	FacetIndex publish() {
+		published = true;
+		return this;
+	}
+
+	/*
+	 * The ids matching any of the values of each filtered facet, except the
+	 * excluded facet (to count the alternatives of its own values).
+	 */
+	RoaringBitmap filter(Map<String, Set<String>> filters, String excludedFacet) {
+		RoaringBitmap matches = allIds;
+		for (Map.Entry<String, Set<String>> filter : filters.entrySet()) {
+			if (filter.getKey().equals(excludedFacet) || filter.getValue().isEmpty())
+				continue;
+
+			Map<String, RoaringBitmap> values = bitmaps.getOrDefault(filter.getKey(), new ConcurrentHashMap<>());
+			RoaringBitmap facetMatches = new RoaringBitmap();
+			for (String value : filter.getValue())
+				facetMatches.or(values.getOrDefault(value, new RoaringBitmap()));
+			matches = RoaringBitmap.and(matches, facetMatches);
+		}
+		return matches;
+	}
+
+	/*
+	 * Count of the ids of each facet value among the ids matching the filters of
+	 * the other facets, so selecting a value shows the counts of its
+	 * alternatives too.
+	 */
+	Map<String, Map<String, Long>> counts(Map<String, Set<String>> filters, Map<String, List<String>> facetValues) {
+		Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+		facetValues.forEach((facet, values) -> {
+			RoaringBitmap matches = filter(filters, facet);
+			Map<String, RoaringBitmap> bitmapsByValue = bitmaps.getOrDefault(facet, new ConcurrentHashMap<>());
+			Map<String, Long> valueCounts = new LinkedHashMap<>();
+			for (String value : values) {
+				RoaringBitmap bitmap = bitmapsByValue.get(value);
+				valueCounts.put(value, bitmap == null ? 0L : RoaringBitmap.andCardinality(matches, bitmap));
+			}
+			counts.put(facet, Collections.unmodifiableMap(valueCounts));
+		});
+		return counts;
+	}
+
+	private void update(String facet, String value, Consumer<RoaringBitmap> change) {
+		bitmaps.computeIfAbsent(facet, key -> new ConcurrentHashMap<>()).compute(value, (key, bitmap) -> {
+			RoaringBitmap copy = bitmap == null ? new RoaringBitmap() : published ? bitmap.clone() : bitmap;
+			change.accept(copy);
+			return copy;
+		});
+	}
+}
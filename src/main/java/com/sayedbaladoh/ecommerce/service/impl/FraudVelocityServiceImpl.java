@@ -0,0 +1,99 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sayedbaladoh.ecommerce.service.FraudVelocityService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Per user sliding window counters of the created orders, the orders of the
+ * last minute and the spend of the last hour and day, so the checkout rules
+ * see the velocity of a user without aggregating its orders in the database.
+ * The counters of a user are locked on their own, and the users are bounded
+ * in number, above it Caffeine evicts users by how often and how recently they
+ * are active (W-TinyLFU), not strictly the least recently active ones.
+ */
+@RequiredArgsConstructor
+@Service
+public class FraudVelocityServiceImpl implements FraudVelocityService {
+
+	private static final long MINUTE_IN_MS = TimeUnit.MINUTES.toMillis(1);
+	private static final long HOUR_IN_MS = TimeUnit.HOURS.toMillis(1);
+	private static final long DAY_IN_MS = TimeUnit.DAYS.toMillis(1);
+
+	private final MeterRegistry meterRegistry;
+
+	@Value("${app.fraud.velocity.maximumUsers:100000}")
+	private long maximumUsers;
+
+	private Cache<Long, UserVelocity> velocities;
+
+	@PostConstruct
+	public void init() {
+		/* A user inactive for a day has nothing left in its windows */
+		velocities = Caffeine.newBuilder()
+				.expireAfterAccess(DAY_IN_MS, TimeUnit.MILLISECONDS)
+				.maximumSize(maximumUsers)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, velocities, "fraudVelocities");
+	}
+
+	@Override
+	public void recordOrder(Long userId, long amountInCents) {
+		velocities.get(userId, id -> new UserVelocity()).record(System.currentTimeMillis(), amountInCents);
+	}
+
+	@Override
+	public long getOrdersLastMinute(Long userId) {
+		UserVelocity velocity = velocities.getIfPresent(userId);
+		return velocity == null ? 0 : velocity.getOrdersLastMinute(System.currentTimeMillis());
+	}
+
+	@Override
+	public long getSpendLastHourInCents(Long userId) {
+		UserVelocity velocity = velocities.getIfPresent(userId);
+		return velocity == null ? 0 : velocity.getSpendLastHourInCents(System.currentTimeMillis());
+	}
+
+	@Override
+	public long getSpendLastDayInCents(Long userId) {
+		UserVelocity velocity = velocities.getIfPresent(userId);
+		return velocity == null ? 0 : velocity.getSpendLastDayInCents(System.currentTimeMillis());
+	}
+
+	private static class UserVelocity {
+
+		private final SlidingWindowCounter ordersLastMinute = new SlidingWindowCounter(MINUTE_IN_MS, 6);
+		private final SlidingWindowCounter spendLastHour = new SlidingWindowCounter(HOUR_IN_MS, 12);
+		private final SlidingWindowCounter spendLastDay = new SlidingWindowCounter(DAY_IN_MS, 24);
+
+		synchronized void record(long now, long amountInCents) {
+			ordersLastMinute.add(now, 1);
+			spendLastHour.add(now, amountInCents);
+			spendLastDay.add(now, amountInCents);
+		}
+
+		synchronized long getOrdersLastMinute(long now) {
+			return ordersLastMinute.sum(now);
+		}
+
+		synchronized long getSpendLastHourInCents(long now) {
+			return spendLastHour.sum(now);
+		}
+
+		synchronized long getSpendLastDayInCents(long now) {
+			return spendLastDay.sum(now);
+		}
+	}
+}
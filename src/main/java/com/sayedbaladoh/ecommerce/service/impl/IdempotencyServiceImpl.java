@@ -0,0 +1,101 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sayedbaladoh.ecommerce.exception.BadRequestException;
+import com.sayedbaladoh.ecommerce.exception.ConflictException;
+import com.sayedbaladoh.ecommerce.service.IdempotencyService;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/*
+ * Bounded store of the requests sent with an Idempotency-Key and their
+ * responses. A retry of a completed request replays its response, a retry of a
+ * request in progress is rejected. Failed requests are not stored, so they can
+ * be retried with the same key.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+	@Value("${app.idempotency.keyTtlInMs:86400000}")
+	private long keyTtlInMs;
+
+	@Value("${app.idempotency.maximumSize:100000}")
+	private long maximumSize;
+
+	private Cache<String, IdempotentRequest> requests;
+
+	@PostConstruct
+	public void init() {
+		requests = Caffeine.newBuilder()
+				.expireAfterWrite(keyTtlInMs, TimeUnit.MILLISECONDS)
+				.maximumSize(maximumSize)
+				.build();
+	}
+
+	/*
+	 * Runs the action once per idempotency key and scope (e.g. the endpoint and
+	 * the user). The request is the fingerprint checked against the retries.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> ResponseEntity<T> execute(String idempotencyKey, String scope, Object request,
+			Supplier<ResponseEntity<T>> action) {
+		if (!StringUtils.hasText(idempotencyKey))
+			return action.get();
+
+		String key = scope + ":" + idempotencyKey;
+		IdempotentRequest idempotentRequest = new IdempotentRequest(request);
+		IdempotentRequest original = requests.asMap().putIfAbsent(key, idempotentRequest);
+
+		if (original != null) {
+			if (!Objects.equals(original.getRequest(), request))
+				throw new BadRequestException(
+						"Idempotency-Key " + idempotencyKey + " is already used with a different request.");
+			ResponseEntity<?> response = original.getResponse();
+			if (response == null)
+				throw new ConflictException("A request with Idempotency-Key " + idempotencyKey + " is in progress.");
+			return (ResponseEntity<T>) replay(response);
+		}
+
+		try {
+			ResponseEntity<T> response = action.get();
+			idempotentRequest.setResponse(response);
+			return response;
+		} catch (RuntimeException e) {
+			requests.asMap().remove(key, idempotentRequest);
+			throw e;
+		}
+	}
+
+	private ResponseEntity<?> replay(ResponseEntity<?> response) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(response.getHeaders());
+		headers.set(IDEMPOTENT_REPLAYED_HEADER, "true");
+		return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+	}
+
+	@Getter
+	@RequiredArgsConstructor
+	private static class IdempotentRequest {
+
+		private final Object request;
+
+		@Setter
+		private volatile ResponseEntity<?> response;
+	}
+}
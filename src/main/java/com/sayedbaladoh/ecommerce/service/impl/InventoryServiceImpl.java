@@ -0,0 +1,218 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.sayedbaladoh.ecommerce.exception.ValidationViolationException;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.repository.ProductRepository;
+import com.sayedbaladoh.ecommerce.repository.ProductRepository.ProductStock;
+import com.sayedbaladoh.ecommerce.service.InventoryService;
+import com.sayedbaladoh.ecommerce.validations.ValidationViolation;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * In memory reservation engine of the products stock. Each product has its own
+ * lock free counter, so the checkouts of a hot product never wait on a row lock
+ * and the checkouts of other products are not affected. The counters are loaded
+ * from the products table on first use and written behind to it.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+	private final ProductRepository productRepository;
+
+	@Value("${app.inventory.reservationTtlInMs:1800000}")
+	private long reservationTtlInMs;
+
+	@Value("${checkout.constraints.basket.items.stock.message}")
+	private String messagePreFix;
+
+	private final ConcurrentMap<Long, Stock> stocks = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Long, Reservation> reservations = new ConcurrentHashMap<>();
+
+	/*
+	 * Products with stock changes not written to the products table yet.
+	 */
+	private final Set<Long> dirtyProductIds = ConcurrentHashMap.newKeySet();
+
+	/*
+	 * Reserves the quantities of the order items, all or nothing. A new
+	 * reservation of the same order replaces the previous one.
+	 */
+	@Override
+	public void reserve(Order order) {
+		release(order.getId());
+
+		Map<Long, Integer> quantities = order.getOrderItems().stream().collect(Collectors
+				.toMap(item -> item.getProduct().getId(), OrderItem::getQuantity, Integer::sum, LinkedHashMap::new));
+		Map<Long, Stock> orderStocks = getStocks(quantities.keySet());
+
+		Map<Long, Integer> reserved = new LinkedHashMap<>();
+		Set<Long> outOfStockIds = new LinkedHashSet<>();
+		quantities.forEach((productId, quantity) -> {
+			Stock stock = orderStocks.get(productId);
+			if (stock == null || !stock.isTracked())
+				return;
+			if (stock.take(quantity)) {
+				reserved.put(productId, quantity);
+				dirtyProductIds.add(productId);
+			} else {
+				outOfStockIds.add(productId);
+			}
+		});
+
+		if (!outOfStockIds.isEmpty()) {
+			restore(reserved);
+			String outOfStockItems = order.getOrderItems().stream()
+					.filter(item -> outOfStockIds.contains(item.getProduct().getId()))
+					.map(item -> "#" + item.getProduct().getId() + "- " + item.getProduct().getName()).distinct()
+					.collect(Collectors.joining(", ", "{", "}"));
+			throw new ValidationViolationException(Collections.singleton(
+					new ValidationViolation(ValidationType.BASKET_ITEMS_STOCK, messagePreFix + outOfStockItems)));
+		}
+
+		Reservation previous = reservations.put(order.getId(),
+				new Reservation(reserved, System.currentTimeMillis() + reservationTtlInMs));
+		if (previous != null)
+			restore(previous.getQuantities());
+	}
+
+	@Override
+	public void release(Long orderId) {
+		Reservation reservation = reservations.remove(orderId);
+		if (reservation != null)
+			restore(reservation.getQuantities());
+	}
+
+	/*
+	 * Keeps the reserved quantities out of the stock, to be called once the order
+	 * is paid. False when the reservation is already released or expired.
+	 */
+	@Override
+	public boolean commit(Long orderId) {
+		return reservations.remove(orderId) != null;
+	}
+
+	/*
+	 * Replaces the stock counter of a product after its stock is set in the
+	 * products table. The quantities of the open reservations are kept out of the
+	 * new stock, as they are given back to it on release or expiry.
+	 */
+	@Override
+	public void resetStock(Long productId, Integer stock) {
+		if (stock == null) {
+			stocks.put(productId, new Stock(null));
+			return;
+		}
+		int reserved = reservations.values().stream()
+				.mapToInt(reservation -> reservation.getQuantities().getOrDefault(productId, 0)).sum();
+		stocks.put(productId, new Stock(stock - reserved));
+		dirtyProductIds.add(productId);
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${app.inventory.sweepIntervalInMs:60000}")
+	public void releaseExpiredReservations() {
+		long now = System.currentTimeMillis();
+		reservations.forEach((orderId, reservation) -> {
+			if (reservation.getExpiresAt() <= now && reservations.remove(orderId, reservation)) {
+				log.info("Releasing the expired stock reservation of order {}", orderId);
+				restore(reservation.getQuantities());
+			}
+		});
+	}
+
+	/*
+	 * Writes the changed stock counters behind to the products table. The product
+	 * is removed from the dirty ones before reading its counter, so a concurrent
+	 * change is written by the next flush.
+	 */
+	@Override
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${app.inventory.flushIntervalInMs:1000}")
+	public void flush() {
+		for (Long productId : dirtyProductIds) {
+			dirtyProductIds.remove(productId);
+			Stock stock = stocks.get(productId);
+			if (stock != null && stock.isTracked())
+				productRepository.updateStock(productId, Math.max(stock.getAvailable().get(), 0));
+		}
+	}
+
+	private Map<Long, Stock> getStocks(Collection<Long> productIds) {
+		Set<Long> missingIds = productIds.stream().filter(id -> !stocks.containsKey(id)).collect(Collectors.toSet());
+		if (!missingIds.isEmpty())
+			for (ProductStock productStock : productRepository.findStocksByIdIn(missingIds))
+				stocks.putIfAbsent(productStock.getId(), new Stock(productStock.getStock()));
+
+		Map<Long, Stock> productStocks = new LinkedHashMap<>();
+		for (Long productId : productIds)
+			productStocks.put(productId, stocks.get(productId));
+		return productStocks;
+	}
+
+	private void restore(Map<Long, Integer> quantities) {
+		quantities.forEach((productId, quantity) -> {
+			Stock stock = stocks.get(productId);
+			if (stock != null && stock.isTracked()) {
+				stock.getAvailable().addAndGet(quantity);
+				dirtyProductIds.add(productId);
+			}
+		});
+	}
+
+	@Getter
+	private static class Stock {
+
+		private final AtomicInteger available;
+
+		Stock(Integer stock) {
+			this.available = stock != null ? new AtomicInteger(stock) : null;
+		}
+
+		boolean isTracked() {
+			return available != null;
+		}
+
+		boolean take(int quantity) {
+			int current;
+			do {
+				current = available.get();
+				if (current < quantity)
+					return false;
+			} while (!available.compareAndSet(current, current - quantity));
+			return true;
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static class Reservation {
+		private final Map<Long, Integer> quantities;
+		private final long expiresAt;
+	}
+}
@@ -1,6 +1,7 @@
 package com.sayedbaladoh.ecommerce.service.impl;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
@@ -11,6 +12,8 @@ import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
 import com.sayedbaladoh.ecommerce.model.Order;
 import com.sayedbaladoh.ecommerce.model.OrderItem;
 import com.sayedbaladoh.ecommerce.repository.OrderItemRepository;
+import com.sayedbaladoh.ecommerce.repository.ProductRepository;
+import com.sayedbaladoh.ecommerce.repository.ProductRepository.ProductPrice;
 import com.sayedbaladoh.ecommerce.service.OrderItemService;
 import com.sayedbaladoh.ecommerce.util.ObjectMapperHelper;
 
@@ -22,6 +25,7 @@ import lombok.RequiredArgsConstructor;
 public class OrderItemServiceImpl implements OrderItemService {
 
 	private final OrderItemRepository orderItemRepository;
+	private final ProductRepository productRepository;
 	private final ObjectMapperHelper objectMapperHelper;
 
 	@Override
@@ -36,6 +40,14 @@ public class OrderItemServiceImpl implements OrderItemService {
 			orderItem.setOrder(order);
 			return orderItem;
 		}).collect(Collectors.toList());
+
+		// Snapshot the unit prices of the items products
+		Map<Long, Long> pricesInCents = productRepository
+				.findPricesByIdIn(orderItems.stream().map(item -> item.getProduct().getId()).collect(Collectors.toSet()))
+				.stream().collect(Collectors.toMap(ProductPrice::getId, ProductPrice::getPriceInCents));
+		for (OrderItem orderItem : orderItems)
+			orderItem.setUnitPriceInCents(pricesInCents.getOrDefault(orderItem.getProduct().getId(), 0L));
+
 		return orderItemRepository.saveAll(orderItems);
 	}
 
@@ -1,34 +1,52 @@
 package com.sayedbaladoh.ecommerce.service.impl;
 
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.sayedbaladoh.ecommerce.dto.common.CursorPage;
 import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
 import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
 import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
 import com.sayedbaladoh.ecommerce.enums.OrderStatus;
+import com.sayedbaladoh.ecommerce.exception.ConflictException;
 import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
 import com.sayedbaladoh.ecommerce.exception.ValidationViolationException;
 import com.sayedbaladoh.ecommerce.model.Order;
 import com.sayedbaladoh.ecommerce.model.OrderItem;
 import com.sayedbaladoh.ecommerce.model.User;
 import com.sayedbaladoh.ecommerce.repository.OrderRepository;
+import com.sayedbaladoh.ecommerce.service.FraudVelocityService;
+import com.sayedbaladoh.ecommerce.service.InventoryService;
 import com.sayedbaladoh.ecommerce.service.OrderItemService;
 import com.sayedbaladoh.ecommerce.service.OrderService;
 import com.sayedbaladoh.ecommerce.service.PaymentGateway;
+import com.sayedbaladoh.ecommerce.util.KeysetCursor;
 import com.sayedbaladoh.ecommerce.util.ObjectMapperHelper;
 import com.sayedbaladoh.ecommerce.validations.ValidationContext;
 import com.sayedbaladoh.ecommerce.validations.ValidationViolation;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationDomain;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -38,15 +56,40 @@ public class OrderServiceImpl implements OrderService {
 	private final PaymentGateway paymentGateway;
 	private final OrderItemService orderItemService;
 	private final ValidationContext validationContext;
+	private final InventoryService inventoryService;
+	private final TransactionTemplate transactionTemplate;
+	private final FraudVelocityService fraudVelocityService;
 
 	@Override
 	public Page<OrderResponseDto> getAllOrders(Pageable pageable) {
-		return objectMapperHelper.mapAll(orderRepository.findAll(pageable), OrderResponseDto.class);
+		return objectMapperHelper.mapAll(fetchOrders(orderRepository.findAllIds(pageable)), OrderResponseDto.class);
 	}
 
 	@Override
 	public Page<OrderResponseDto> getAllOrders(Long userId, Pageable pageable) {
-		return objectMapperHelper.mapAll(orderRepository.findAllByUserId(userId, pageable), OrderResponseDto.class);
+		return objectMapperHelper.mapAll(fetchOrders(orderRepository.findAllIdsByUserId(userId, pageable)),
+				OrderResponseDto.class);
+	}
+
+	@Override
+	public CursorPage<OrderResponseDto> getOrders(String cursor, int size) {
+		Pageable limit = KeysetCursor.limit(size);
+		if (cursor == null)
+			return fetchOrders(orderRepository.findSliceIds(limit), cursor);
+
+		long[] keys = KeysetCursor.decode(cursor, 2);
+		return fetchOrders(orderRepository.findSliceIdsBefore(new Date(keys[0]), keys[1], limit), cursor);
+	}
+
+	@Override
+	public CursorPage<OrderResponseDto> getOrders(Long userId, String cursor, int size) {
+		Pageable limit = KeysetCursor.limit(size);
+		if (cursor == null)
+			return fetchOrders(orderRepository.findSliceIdsByUserId(userId, limit), cursor);
+
+		long[] keys = KeysetCursor.decode(cursor, 2);
+		return fetchOrders(orderRepository.findSliceIdsByUserIdBefore(userId, new Date(keys[0]), keys[1], limit),
+				cursor);
 	}
 
 	@Override
@@ -70,6 +113,12 @@ public class OrderServiceImpl implements OrderService {
 
 		List<OrderItem> orderItems = orderItemService.addOrderItems(order, orderDto.getOrderItems());
 		order.setOrderItems(orderItems);
+		order.calculateTotals();
+
+		// Count the order in the user velocity once it is committed, so a rolled
+		// back order never blocks the next checkouts
+		long subtotalInCents = order.getSubtotalInCents();
+		afterCommit(() -> fraudVelocityService.recordOrder(userId, subtotalInCents));
 
 		return objectMapperHelper.map(order, OrderResponseDto.class);
 	}
@@ -80,35 +129,114 @@ public class OrderServiceImpl implements OrderService {
 		return save(order);
 	}
 
-	@Transactional
 	public CheckoutSession createCheckoutSession(Long userId, OrderDto orderDto) {
-		OrderResponseDto orderResponse = addOrder(userId, orderDto);
+		OrderResponseDto orderResponse = transactionTemplate.execute(status -> addOrder(userId, orderDto));
 		return createCheckoutSession(orderResponse.getId());
 	}
 
-	@Transactional
+	/*
+	 * The checkout is not transactional, the payment gateway is called between a
+	 * short transaction validating the order and another one recording its
+	 * session, so no database connection is held during the remote call.
+	 */
 	public CheckoutSession createCheckoutSession(Long orderId) {
 
-		// Get order
-		Order order = get(orderId);
+		// Get and validate order
+		Order order = transactionTemplate.execute(status -> getValidCheckoutOrder(orderId));
+
+		// Reserve the basket items stock, released when the checkout fails or
+		// the order is not paid within the reservation ttl, and committed once
+		// its payment is confirmed
+		inventoryService.reserve(order);
+
+		try {
+			// Get checkout session
+			CheckoutSession checkoutSession = null;
+			checkoutSession = paymentGateway.createCheckoutSession(order);
+
+			// Update order status
+			order.setStatus(OrderStatus.CHECKOUT_SESSION_RETRIEVED);
+			order.setSessionId(checkoutSession.getSessionId());
+			transactionTemplate.execute(status -> orderRepository.save(order));
+
+			return checkoutSession;
+		} catch (RuntimeException e) {
+			inventoryService.release(order.getId());
+			throw e;
+		}
+
+	}
+
+	/*
+	 * Called back once the customer pays the checkout session of the order. The
+	 * payment status is read from the payment gateway rather than trusted, then
+	 * the order is marked paid and its stock reservation committed. A reservation
+	 * expired in the meantime is taken again, the paid order has to be delivered.
+	 */
+	@Override
+	public OrderResponseDto confirmPayment(Long orderId) {
+		Order order = transactionTemplate.execute(status -> getWithItems(orderId));
+		if (order.getStatus() == OrderStatus.PAID || order.getStatus() == OrderStatus.COMPLETED)
+			return objectMapperHelper.map(order, OrderResponseDto.class);
+		if (order.getStatus() != OrderStatus.CHECKOUT_SESSION_RETRIEVED)
+			throw new ConflictException(String.format("Order with id: %d is not checked out.", orderId));
+
+		if (!PaymentGateway.PAYMENT_STATUS_PAID.equals(paymentGateway.getPaymentStatus(order.getSessionId())))
+			throw new ConflictException(String.format("Order with id: %d is not paid yet.", orderId));
+
+		// Only the confirmation moving the order to paid commits its stock
+		Integer updated = transactionTemplate.execute(status -> orderRepository.updateStatus(orderId,
+				OrderStatus.CHECKOUT_SESSION_RETRIEVED, OrderStatus.PAID));
+		order.setStatus(OrderStatus.PAID);
+		if (updated != null && updated > 0 && !inventoryService.commit(orderId)) {
+			try {
+				inventoryService.reserve(order);
+				inventoryService.commit(orderId);
+			} catch (ValidationViolationException e) {
+				log.error("Order {} is paid after its stock reservation expired, its items are out of stock: {}",
+						orderId, e.getConstraintViolations());
+			}
+		}
+
+		return objectMapperHelper.map(order, OrderResponseDto.class);
+	}
+
+	private Order getValidCheckoutOrder(Long orderId) {
+		Order order = getWithItems(orderId);
+
+		// An order is checked out once, its stock stays reserved until it is paid
+		// or the reservation expires
+		if (order.getStatus() != OrderStatus.NEW)
+			throw new ConflictException(String.format("Order with id: %d is already checked out.", orderId));
 
-		// Validate order
 		// Apply validation policies for checking out order
 		Set<ValidationViolation> violations = validationContext.execute(ValidationDomain.CHECK_OUT, order);
 		if (!violations.isEmpty())
 			throw new ValidationViolationException(violations);
 
-		// Get checkout session
-		CheckoutSession checkoutSession = null;
-		checkoutSession = paymentGateway.createCheckoutSession(order);
-
-		// Update order status
-		order.setStatus(OrderStatus.CHECKOUT_SESSION_RETRIEVED);
-		order.setSessionId(checkoutSession.getSessionId());
-		orderRepository.save(order);
+		return order;
+	}
 
-		return checkoutSession;
+	/*
+	 * Runs the action after the current transaction commits, or at once out of a
+	 * transaction.
+	 */
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
 
+	private Order getWithItems(Long id) {
+		return orderRepository.findWithItemsById(id)
+				.orElseThrow(() -> new ResourceNotFoundException(String.format("Order with id: %d is not found.", id)));
 	}
 
 	private Order get(long id) {
@@ -116,6 +244,47 @@ public class OrderServiceImpl implements OrderService {
 				.orElseThrow(() -> new ResourceNotFoundException(String.format("Order with id: %d is not found.", id)));
 	}
 
+	/*
+	 * Loads the orders of a page of ids with their associations in one query and
+	 * keeps the page order and metadata of the ids page.
+	 */
+	private Page<Order> fetchOrders(Page<Long> ids) {
+		return new PageImpl<>(fetchOrdersOf(ids), ids.getPageable(), ids.getTotalElements());
+	}
+
+	/*
+	 * Loads the orders of a slice of ids, the next cursor is the (created date,
+	 * id) keys of its last order, or the current cursor when all its orders are
+	 * deleted in the meantime.
+	 */
+	private CursorPage<OrderResponseDto> fetchOrders(Slice<Long> ids, String cursor) {
+		List<Order> orders = fetchOrdersOf(ids);
+
+		String nextCursor = null;
+		if (ids.hasNext() && orders.isEmpty()) {
+			nextCursor = cursor;
+		} else if (ids.hasNext()) {
+			Order last = orders.get(orders.size() - 1);
+			nextCursor = KeysetCursor.encode(last.getCreatedDate().getTime(), last.getId());
+		}
+		return new CursorPage<>(objectMapperHelper.mapAll(orders, OrderResponseDto.class), orders.size(),
+				ids.hasNext(), nextCursor);
+	}
+
+	/*
+	 * The orders deleted between the ids query and this one are skipped.
+	 */
+	private List<Order> fetchOrdersOf(Slice<Long> ids) {
+		Map<Long, Order> orders = fetchOrdersById(ids.getContent());
+		return ids.getContent().stream().map(orders::get).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+
+	private Map<Long, Order> fetchOrdersById(List<Long> ids) {
+		return ids.isEmpty() ? Collections.emptyMap()
+				: orderRepository.findAllWithItemsByIdIn(ids).stream()
+						.collect(Collectors.toMap(Order::getId, Function.identity()));
+	}
+
 	private OrderDto save(Order order) {
 		return objectMapperHelper.map(orderRepository.save(order), OrderDto.class);
 	}
@@ -0,0 +1,329 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import com.sayedbaladoh.ecommerce.dto.common.FacetedPage;
+import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
+import com.sayedbaladoh.ecommerce.exception.BadRequestException;
+import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.repository.ProductRepository;
+import com.sayedbaladoh.ecommerce.service.ProductSearchService;
+import com.sayedbaladoh.ecommerce.service.ProductService;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * In memory inverted index of the products name and description. The terms
+ * are kept sorted, so a query term matches all the indexed terms it prefixes.
+ * The index is rebuilt from the products table at startup and updated on each
+ * product save, a rebuild swaps in a new index so searches never see it half
+ * built. Along the terms, the products are indexed by facet (availability and
+ * price bucket) in bitmaps to browse the catalog with facet counts. Only the
+ * keys of the products are indexed, their content (e.g. the stock) is read from
+ * the products cache for the returned page.
+ */
+@Slf4j
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+	private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+	private static final int NAME_WEIGHT = 3;
+	private static final int DESCRIPTION_WEIGHT = 1;
+	/* A term matched by prefix scores less than an exact match */
+	private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+	private static final int REBUILD_BATCH_SIZE = 1000;
+
+	private final ProductRepository productRepository;
+	private final ProductService productService;
+
+	/* Lower bounds of the price facet buckets, the last bucket is unbounded */
+	@Value("${app.catalog.priceBuckets:0,10,50,100,500,1000}")
+	private double[] priceBuckets;
+
+	private volatile Index index = new Index().publish();
+
+	/* The product service indexes the products it saves, so it is injected lazily */
+	public ProductSearchServiceImpl(ProductRepository productRepository, @Lazy ProductService productService) {
+		this.productRepository = productRepository;
+		this.productService = productService;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Override
+	public synchronized void rebuild() {
+		Index rebuiltIndex = new Index();
+		Slice<Product> products = productRepository.findAllByOrderByIdAsc(PageRequest.of(0, REBUILD_BATCH_SIZE));
+		while (true) {
+			products.forEach(product -> rebuiltIndex.add(document(product)));
+			if (!products.hasNext())
+				break;
+			List<Product> content = products.getContent();
+			products = productRepository.findByIdGreaterThanOrderByIdAsc(content.get(content.size() - 1).getId(),
+					PageRequest.of(0, REBUILD_BATCH_SIZE));
+		}
+
+		index = rebuiltIndex.publish();
+		log.info("Product search index rebuilt with {} products", rebuiltIndex.documents.size());
+	}
+
+	@Override
+	public synchronized void index(Product product) {
+		index.add(document(product));
+	}
+
+	@Override
+	public Page<ProductResponseDto> search(String query, Boolean available, Double minPrice, Double maxPrice,
+			Pageable pageable) {
+		Index index = this.index;
+		Long minPriceInCents = minPrice == null ? null : MoneyUtil.toCents(minPrice);
+		Long maxPriceInCents = maxPrice == null ? null : MoneyUtil.toCents(maxPrice);
+
+		List<ScoredDocument> hits = index.match(tokenize(query)).entrySet().stream()
+				.map(hit -> new ScoredDocument(index.documents.get(hit.getKey()), hit.getValue()))
+				.filter(hit -> hit.getDocument() != null)
+				.filter(hit -> available == null || hit.getDocument().isAvailable() == available)
+				.filter(hit -> minPriceInCents == null || hit.getDocument().getPriceInCents() >= minPriceInCents)
+				.filter(hit -> maxPriceInCents == null || hit.getDocument().getPriceInCents() <= maxPriceInCents)
+				.sorted(Comparator.comparingDouble(ScoredDocument::getScore).reversed()
+						.thenComparing(hit -> hit.getDocument().getId()))
+				.collect(Collectors.toList());
+
+		List<Long> ids = hits.stream().skip(pageable.getOffset()).limit(pageable.getPageSize())
+				.map(hit -> hit.getDocument().getId()).collect(Collectors.toList());
+		return new PageImpl<>(productService.getProductDtos(ids), pageable, hits.size());
+	}
+
+	@Override
+	public FacetedPage<ProductResponseDto> browse(Map<String, Set<String>> filters, Pageable pageable) {
+		Index index = this.index;
+		RoaringBitmap matches = index.facets.filter(filters, null);
+
+		List<Long> ids = new ArrayList<>();
+		Sort sort = pageable.getSort();
+		if (sort.isUnsorted() || sort.equals(Sort.by("id"))) {
+			/* The bitmap is ordered by id, jump to the page first id */
+			if (pageable.getOffset() < matches.getCardinality()) {
+				PeekableIntIterator matchIds = matches.getIntIterator();
+				matchIds.advanceIfNeeded(matches.select((int) pageable.getOffset()));
+				while (matchIds.hasNext() && ids.size() < pageable.getPageSize())
+					ids.add((long) matchIds.next());
+			}
+		} else {
+			Comparator<Document> comparator = comparator(sort);
+			Arrays.stream(matches.toArray()).mapToObj(id -> index.documents.get((long) id)).sorted(comparator)
+					.skip(pageable.getOffset()).limit(pageable.getPageSize())
+					.forEach(document -> ids.add(document.getId()));
+		}
+
+		Map<String, List<String>> facetValues = new LinkedHashMap<>();
+		facetValues.put(FACET_AVAILABLE, Arrays.asList(Boolean.TRUE.toString(), Boolean.FALSE.toString()));
+		facetValues.put(FACET_PRICE, priceBucketKeys());
+		return new FacetedPage<>(productService.getProductDtos(ids), pageable, matches.getLongCardinality(),
+				index.facets.counts(filters, facetValues));
+	}
+
+	private Comparator<Document> comparator(Sort sort) {
+		Comparator<Document> comparator = null;
+		for (Sort.Order order : sort) {
+			Comparator<Document> propertyComparator;
+			switch (order.getProperty()) {
+			case "id":
+				propertyComparator = Comparator.comparing(Document::getId);
+				break;
+			case "name":
+				propertyComparator = Comparator.comparing(Document::getName,
+						Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+				break;
+			case "price":
+				propertyComparator = Comparator.comparingLong(Document::getPriceInCents);
+				break;
+			default:
+				throw new BadRequestException("Unsupported sort property: " + order.getProperty());
+			}
+			if (order.isDescending())
+				propertyComparator = propertyComparator.reversed();
+			comparator = comparator == null ? propertyComparator : comparator.thenComparing(propertyComparator);
+		}
+		return comparator.thenComparing(Document::getId);
+	}
+
+	/* The price bucket keys, e.g. 10-50 and 1000- for the last one */
+	private List<String> priceBucketKeys() {
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < priceBuckets.length; i++)
+			keys.add(priceBucketKey(i));
+		return keys;
+	}
+
+	private String priceBucketKey(int bucket) {
+		return format(priceBuckets[bucket]) + "-"
+				+ (bucket + 1 < priceBuckets.length ? format(priceBuckets[bucket + 1]) : "");
+	}
+
+	private String priceBucket(long priceInCents) {
+		int bucket = 0;
+		while (bucket + 1 < priceBuckets.length && priceInCents >= MoneyUtil.toCents(priceBuckets[bucket + 1]))
+			bucket++;
+		return priceBucketKey(bucket);
+	}
+
+	private static String format(double price) {
+		return BigDecimal.valueOf(price).stripTrailingZeros().toPlainString();
+	}
+
+	private Document document(Product product) {
+		Map<String, Integer> termWeights = new HashMap<>();
+		for (String term : tokenize(product.getName()))
+			termWeights.merge(term, NAME_WEIGHT, Integer::sum);
+		for (String term : tokenize(product.getDescription()))
+			termWeights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+
+		Map<String, String> facetValues = new HashMap<>();
+		facetValues.put(FACET_AVAILABLE, Boolean.toString(product.isAvailable()));
+		facetValues.put(FACET_PRICE, priceBucket(product.getPriceInCents()));
+
+		return new Document(product.getId(), product.getName(), product.getPriceInCents(), product.isAvailable(),
+				termWeights, facetValues);
+	}
+
+	/*
+	 * Lower cased terms without diacritics, split on anything but letters and
+	 * digits.
+	 */
+	static List<String> tokenize(String text) {
+		List<String> terms = new ArrayList<>();
+		if (text == null)
+			return terms;
+
+		String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+				.toLowerCase(Locale.ROOT);
+		for (String term : TOKEN_SEPARATOR.split(normalized))
+			if (!term.isEmpty())
+				terms.add(term);
+		return terms;
+	}
+
+	/*
+	 * The postings of each term (product id to term weight) and the indexed
+	 * products with their facets. Written under the service lock, read
+	 * concurrently.
+	 */
+	private static class Index {
+
+		private final ConcurrentNavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+		private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+		private final FacetIndex facets = new FacetIndex();
+
+		/* The facets of a rebuilt index are built in place until it is published */
+		Index publish() {
+			facets.publish();
+			return this;
+		}
+
+		void add(Document document) {
+			Document previous = documents.put(document.getId(), document);
+			facets.add(Math.toIntExact(document.getId()), document.getFacetValues(),
+					previous == null ? Collections.emptyMap() : previous.getFacetValues());
+			if (previous != null)
+				for (String term : previous.getTermWeights().keySet())
+					postings.computeIfPresent(term, (key, products) -> {
+						products.remove(previous.getId());
+						return products.isEmpty() ? null : products;
+					});
+
+			document.getTermWeights().forEach((term, weight) -> postings
+					.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(document.getId(), weight));
+		}
+
+		/*
+		 * Scores of the products matching all the query terms, each query term
+		 * matches the indexed terms it prefixes. Without terms all the products
+		 * match.
+		 */
+		Map<Long, Double> match(List<String> queryTerms) {
+			if (queryTerms.isEmpty())
+				return documents.keySet().stream().collect(Collectors.toMap(id -> id, id -> 0d));
+
+			Map<Long, Double> scores = null;
+			for (String queryTerm : queryTerms) {
+				Map<Long, Double> termScores = new HashMap<>();
+				for (Map.Entry<String, Map<Long, Integer>> posting : postings
+						.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+					double factor = idf(posting.getValue().size())
+							* (posting.getKey().equals(queryTerm) ? 1 : PREFIX_MATCH_FACTOR);
+					posting.getValue().forEach(
+							(productId, weight) -> termScores.merge(productId, weight * factor, Double::sum));
+				}
+
+				if (scores == null)
+					scores = termScores;
+				else {
+					scores.keySet().retainAll(termScores.keySet());
+					scores.replaceAll((productId, score) -> score + termScores.get(productId));
+				}
+				if (scores.isEmpty())
+					break;
+			}
+			return scores;
+		}
+
+		/* Rare terms weigh more than common ones */
+		private double idf(int documentFrequency) {
+			return Math.log(1 + (double) documents.size() / documentFrequency);
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static class Document {
+		private final Long id;
+		private final String name;
+		private final long priceInCents;
+		private final boolean available;
+		private final Map<String, Integer> termWeights;
+		private final Map<String, String> facetValues;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static class ScoredDocument {
+		private final Document document;
+		private final double score;
+	}
+}
@@ -1,19 +1,41 @@
 package com.sayedbaladoh.ecommerce.service.impl;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sayedbaladoh.ecommerce.dto.common.CursorPage;
 import com.sayedbaladoh.ecommerce.dto.product.ProductRequestDto;
 import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
 import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
 import com.sayedbaladoh.ecommerce.model.Product;
 import com.sayedbaladoh.ecommerce.repository.ProductRepository;
+import com.sayedbaladoh.ecommerce.service.InventoryService;
+import com.sayedbaladoh.ecommerce.service.ProductSearchService;
 import com.sayedbaladoh.ecommerce.service.ProductService;
+import com.sayedbaladoh.ecommerce.util.KeysetCursor;
 import com.sayedbaladoh.ecommerce.util.ObjectMapperHelper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
@@ -22,15 +44,82 @@ public class ProductServiceImpl implements ProductService {
 
 	private final ProductRepository productRepository;
 	private final ObjectMapperHelper objectMapperHelper;
+	private final InventoryService inventoryService;
+	private final ProductSearchService productSearchService;
+	private final MeterRegistry meterRegistry;
+
+	@Value("${app.catalog.cacheTtlInMs:60000}")
+	private long cacheTtlInMs;
+
+	@Value("${app.catalog.productCacheMaximumSize:10000}")
+	private long productCacheMaximumSize;
+
+	@Value("${app.catalog.pageCacheMaximumSize:1000}")
+	private long pageCacheMaximumSize;
+
+	/*
+	 * Read-through caches of the catalog, the products by id and the hot listing
+	 * pages. They are invalidated when a product is added or updated, the ttl
+	 * bounds the staleness of the changes made out of this service (e.g. the
+	 * stock written behind by the inventory).
+	 */
+	private Cache<Long, ProductResponseDto> products;
+	private Cache<Pageable, Page<ProductResponseDto>> productPages;
+
+	@PostConstruct
+	public void init() {
+		products = Caffeine.newBuilder()
+				.expireAfterWrite(cacheTtlInMs, TimeUnit.MILLISECONDS)
+				.maximumSize(productCacheMaximumSize)
+				.recordStats()
+				.build();
+		productPages = Caffeine.newBuilder()
+				.expireAfterWrite(cacheTtlInMs, TimeUnit.MILLISECONDS)
+				.maximumSize(pageCacheMaximumSize)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+		CaffeineCacheMetrics.monitor(meterRegistry, productPages, "productPages");
+	}
 
 	@Override
 	public Page<ProductResponseDto> getAllProducts(Pageable pageable) {
-		return objectMapperHelper.mapAll(productRepository.findAll(pageable), ProductResponseDto.class);
+		return productPages.get(pageable,
+				key -> objectMapperHelper.mapAll(productRepository.findAll(key), ProductResponseDto.class));
+	}
+
+	@Override
+	public CursorPage<ProductResponseDto> getProducts(String cursor, int size) {
+		Pageable limit = KeysetCursor.limit(size);
+		Slice<Product> products = cursor == null ? productRepository.findAllByOrderByIdAsc(limit)
+				: productRepository.findByIdGreaterThanOrderByIdAsc(KeysetCursor.decode(cursor, 1)[0], limit);
+
+		List<Product> content = products.getContent();
+		String nextCursor = products.hasNext() ? KeysetCursor.encode(content.get(content.size() - 1).getId()) : null;
+		return new CursorPage<>(objectMapperHelper.mapAll(content, ProductResponseDto.class), content.size(),
+				products.hasNext(), nextCursor);
 	}
 
 	@Override
 	public ProductResponseDto getProductDto(long id) {
-		return objectMapperHelper.map(get(id), ProductResponseDto.class);
+		return products.get(id, key -> objectMapperHelper.map(get(key), ProductResponseDto.class));
+	}
+
+	/*
+	 * The products of the given ids in their order, the ones missing from the
+	 * cache are loaded in one query. Unknown ids are skipped.
+	 */
+	@Override
+	public List<ProductResponseDto> getProductDtos(List<Long> ids) {
+		Map<Long, ProductResponseDto> cachedProducts = products.getAllPresent(ids);
+		Set<Long> missingIds = ids.stream().filter(id -> !cachedProducts.containsKey(id)).collect(Collectors.toSet());
+		Map<Long, ProductResponseDto> loadedProducts = missingIds.isEmpty() ? Collections.emptyMap()
+				: objectMapperHelper.mapAll(productRepository.findAllById(missingIds), ProductResponseDto.class)
+						.stream().collect(Collectors.toMap(ProductResponseDto::getId, Function.identity()));
+		products.putAll(loadedProducts);
+
+		return ids.stream().map(id -> cachedProducts.getOrDefault(id, loadedProducts.get(id)))
+				.filter(Objects::nonNull).collect(Collectors.toList());
 	}
 
 	@Override
@@ -38,17 +127,35 @@ public class ProductServiceImpl implements ProductService {
 		return productRepository.findById(id);
 	}
 
+	@Override
+	public Set<Long> getMissingProductIds(Collection<Long> ids) {
+		Set<Long> distinctIds = new LinkedHashSet<>(ids);
+		if (distinctIds.isEmpty())
+			return distinctIds;
+
+		Set<Long> existingIds = productRepository.findExistingIds(distinctIds);
+		return distinctIds.stream().filter(id -> !existingIds.contains(id))
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
 	@Override
 	public ProductResponseDto addProduct(ProductRequestDto productDto) {
 		Product product = objectMapperHelper.map(productDto, Product.class);
-		return save(product);
+		ProductResponseDto productResponse = save(product);
+		productPages.invalidateAll();
+		return productResponse;
 	}
 
 	@Override
 	public ProductResponseDto updateProduct(Long id, ProductRequestDto productDto) {
 		Product product = objectMapperHelper.map(productDto, get(id));
 		product.setId(id);
-		return save(product);
+		ProductResponseDto productResponse = save(product);
+		if (productDto.getStock() != null)
+			inventoryService.resetStock(id, productDto.getStock());
+		products.invalidate(id);
+		productPages.invalidateAll();
+		return productResponse;
 	}
 
 	private Product get(long id) {
@@ -57,6 +164,8 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	private ProductResponseDto save(Product product) {
-		return objectMapperHelper.map(productRepository.save(product), ProductResponseDto.class);
+		Product savedProduct = productRepository.save(product);
+		productSearchService.index(savedProduct);
+		return objectMapperHelper.map(savedProduct, ProductResponseDto.class);
 	}
-}
\ No newline at end of file
+}
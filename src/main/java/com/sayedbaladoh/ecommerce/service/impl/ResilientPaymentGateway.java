@@ -0,0 +1,186 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
+import com.sayedbaladoh.ecommerce.exception.PaymentGatewayUnavailableException;
+import com.sayedbaladoh.ecommerce.exception.PaymentGetwayException;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.service.PaymentGateway;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Guards the payment provider: at most the max concurrent calls run at once
+ * (the bulkhead), each call times out, and a circuit breaker fails the
+ * checkouts fast while the provider is failing or slow, probing it again once
+ * half open. The calls are handed off to a thread directly, the ones above the
+ * bulkhead are rejected rather than queued, so the call timeout only counts the
+ * provider call. A timed out call is interrupted, so it gives its permit back
+ * instead of holding it until the provider answers.
+ */
+@Slf4j
+@Primary
+@Service
+public class ResilientPaymentGateway implements PaymentGateway {
+
+	private static final String NAME = "paymentGateway";
+
+	private final PaymentGateway paymentProvider;
+	private final Semaphore bulkhead;
+	private final ThreadPoolExecutor bulkheadPool;
+	private final ExecutorService bulkheadExecutor;
+	private final TimeLimiter timeLimiter;
+	private final CircuitBreaker circuitBreaker;
+
+	public ResilientPaymentGateway(@Qualifier(PaymentGateway.PROVIDER) PaymentGateway paymentProvider,
+			MeterRegistry meterRegistry,
+			@Value("${app.payment.resilience.maxConcurrentCalls:16}") int maxConcurrentCalls,
+			@Value("${app.payment.resilience.timeoutInMs:10000}") long timeoutInMs,
+			@Value("${app.payment.resilience.failureRateThreshold:50}") float failureRateThreshold,
+			@Value("${app.payment.resilience.slowCallDurationInMs:5000}") long slowCallDurationInMs,
+			@Value("${app.payment.resilience.slidingWindowSize:20}") int slidingWindowSize,
+			@Value("${app.payment.resilience.minimumNumberOfCalls:10}") int minimumNumberOfCalls,
+			@Value("${app.payment.resilience.waitInOpenStateInMs:30000}") long waitInOpenStateInMs,
+			@Value("${app.payment.resilience.permittedCallsInHalfOpenState:3}") int permittedCallsInHalfOpenState) {
+		this.paymentProvider = paymentProvider;
+
+		this.bulkhead = new Semaphore(maxConcurrentCalls);
+		this.bulkheadPool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), new CustomizableThreadFactory(NAME + "-"));
+		this.bulkheadExecutor = ExecutorServiceMetrics.monitor(meterRegistry, bulkheadPool, NAME);
+
+		this.timeLimiter = TimeLimiter.of(NAME, TimeLimiterConfig.custom()
+				.timeoutDuration(Duration.ofMillis(timeoutInMs))
+				.cancelRunningFuture(true)
+				.build());
+
+		CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+				.failureRateThreshold(failureRateThreshold)
+				.slowCallRateThreshold(failureRateThreshold)
+				.slowCallDurationThreshold(Duration.ofMillis(slowCallDurationInMs))
+				.slidingWindowSize(slidingWindowSize)
+				.minimumNumberOfCalls(minimumNumberOfCalls)
+				.waitDurationInOpenState(Duration.ofMillis(waitInOpenStateInMs))
+				.permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+				.automaticTransitionFromOpenToHalfOpenEnabled(true)
+				.ignoreExceptions(RejectedExecutionException.class)
+				.build());
+		this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+
+		TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+		circuitBreaker.getEventPublisher().onStateTransition(event -> {
+			log.warn("Payment gateway circuit breaker {}", event.getStateTransition());
+			meterRegistry.counter("resilience4j.circuitbreaker.transitions", "name", NAME,
+					"from", event.getStateTransition().getFromState().name(),
+					"to", event.getStateTransition().getToState().name()).increment();
+		});
+	}
+
+	@Override
+	public CheckoutSession createCheckoutSession(Order order) {
+		return call(() -> paymentProvider.createCheckoutSession(order));
+	}
+
+	@Override
+	public String getPaymentStatus(String sessionId) {
+		return call(() -> paymentProvider.getPaymentStatus(sessionId));
+	}
+
+	CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	@PreDestroy
+	public void close() {
+		bulkheadPool.shutdownNow();
+	}
+
+	private <T> T call(Callable<T> providerCall) {
+		Callable<T> call = CircuitBreaker.decorateCallable(circuitBreaker,
+				TimeLimiter.decorateFutureSupplier(timeLimiter, () -> submit(providerCall)));
+		try {
+			return call.call();
+		} catch (CallNotPermittedException e) {
+			throw new PaymentGatewayUnavailableException("Payment gateway is unavailable, please retry later.", e);
+		} catch (RejectedExecutionException e) {
+			throw new PaymentGatewayUnavailableException("Payment gateway is busy, please retry later.", e);
+		} catch (TimeoutException e) {
+			throw new PaymentGatewayUnavailableException("Payment gateway did not respond in time.", e);
+		} catch (ExecutionException e) {
+			throw unwrap(e.getCause());
+		} catch (Exception e) {
+			throw unwrap(e);
+		}
+	}
+
+	/*
+	 * Starts the provider call on a thread at once, or rejects it when all the
+	 * bulkhead permits are taken. The permit is given back once the call returns,
+	 * or on its cancellation when it never started.
+	 */
+	private <T> Future<T> submit(Callable<T> providerCall) {
+		if (!bulkhead.tryAcquire())
+			throw new RejectedExecutionException("All the payment gateway calls are in progress");
+
+		AtomicBoolean started = new AtomicBoolean();
+		FutureTask<T> call = new FutureTask<T>(() -> {
+			if (!started.compareAndSet(false, true))
+				return null;
+			try {
+				return providerCall.call();
+			} finally {
+				bulkhead.release();
+			}
+		}) {
+			@Override
+			protected void done() {
+				if (started.compareAndSet(false, true))
+					bulkhead.release();
+			}
+		};
+		try {
+			bulkheadExecutor.execute(call);
+		} catch (RejectedExecutionException e) {
+			call.cancel(false);
+			throw e;
+		}
+		return call;
+	}
+
+	private RuntimeException unwrap(Throwable e) {
+		if (e instanceof PaymentGetwayException)
+			return (PaymentGetwayException) e;
+		return new PaymentGetwayException(e.getMessage(), e);
+	}
+}
@@ -0,0 +1,108 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
+import com.sayedbaladoh.ecommerce.exception.PaymentGetwayException;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.service.PaymentGateway;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * In process stand-in of the Stripe gateway, to load test the checkout offline.
+ * Each call waits a latency drawn from the configured distribution and fails
+ * or times out at the configured rates.
+ */
+@Slf4j
+@Profile(SimulatedPaymentService.PROFILE)
+@Qualifier(PaymentGateway.PROVIDER)
+@Service
+public class SimulatedPaymentService implements PaymentGateway {
+
+	public static final String PROFILE = "simulated-payment";
+
+	public enum LatencyDistribution {
+		FIXED, UNIFORM, LOG_NORMAL
+	}
+
+	@Value("${app.payment.simulated.latencyDistribution:LOG_NORMAL}")
+	private LatencyDistribution latencyDistribution;
+
+	/*
+	 * Fixed latency, upper bound of the uniform latency or median of the log
+	 * normal latency.
+	 */
+	@Value("${app.payment.simulated.latencyInMs:300}")
+	private long latencyInMs;
+
+	/*
+	 * Shape of the log normal latency, the larger the longer its tail.
+	 */
+	@Value("${app.payment.simulated.latencySigma:0.5}")
+	private double latencySigma;
+
+	@Value("${app.payment.simulated.errorRate:0}")
+	private double errorRate;
+
+	@Value("${app.payment.simulated.timeoutRate:0}")
+	private double timeoutRate;
+
+	@Value("${app.payment.simulated.timeoutInMs:30000}")
+	private long timeoutInMs;
+
+	@Override
+	public CheckoutSession createCheckoutSession(Order order) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+
+		if (random.nextDouble() < timeoutRate) {
+			sleep(timeoutInMs);
+			throw new PaymentGetwayException("Simulated payment gateway timed out after " + timeoutInMs + " ms");
+		}
+
+		sleep(nextLatency(random));
+		if (random.nextDouble() < errorRate)
+			throw new PaymentGetwayException("Simulated payment gateway error");
+
+		String sessionId = "cs_test_" + UUID.randomUUID().toString().replace("-", "");
+		return CheckoutSession.builder().orderId(order.getId()).sessionId(sessionId).paymentStatus("unpaid")
+				.url("https://checkout.stripe.com/pay/" + sessionId).build();
+	}
+
+	/*
+	 * The simulated sessions are paid as soon as they are created.
+	 */
+	@Override
+	public String getPaymentStatus(String sessionId) {
+		sleep(nextLatency(ThreadLocalRandom.current()));
+		return PAYMENT_STATUS_PAID;
+	}
+
+	private long nextLatency(ThreadLocalRandom random) {
+		switch (latencyDistribution) {
+		case UNIFORM:
+			return latencyInMs > 0 ? random.nextLong(latencyInMs + 1) : 0;
+		case LOG_NORMAL:
+			return Math.round(latencyInMs * Math.exp(latencySigma * random.nextGaussian()));
+		default:
+			return latencyInMs;
+		}
+	}
+
+	private void sleep(long millis) {
+		if (millis <= 0)
+			return;
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PaymentGetwayException("Simulated payment gateway call is interrupted");
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+/*
+ * Sum of the amounts added within a sliding window, kept in a ring of buckets
+ * so the old amounts expire a bucket at a time. The sum covers the current
+ * bucket and the previous ones up to the window, reading it costs one pass over
+ * the (few) buckets whatever the number of amounts added. Not thread safe.
+ */
+class SlidingWindowCounter {
+
+	private final long bucketSizeInMs;
+	private final long[] amounts;
+	private final long[] bucketIds;
+
+	SlidingWindowCounter(long windowInMs, int buckets) {
+		this.bucketSizeInMs = windowInMs / buckets;
+		this.amounts = new long[buckets];
+		this.bucketIds = new long[buckets];
+	}
+
+	void add(long now, long amount) {
+		long bucketId = now / bucketSizeInMs;
+		int bucket = (int) (bucketId % amounts.length);
+		if (bucketIds[bucket] != bucketId) {
+			bucketIds[bucket] = bucketId;
+			amounts[bucket] = 0;
+		}
+		amounts[bucket] += amount;
+	}
+
+	long sum(long now) {
+		long oldestBucketId = now / bucketSizeInMs - amounts.length + 1;
+		long sum = 0;
+		for (int bucket = 0; bucket < amounts.length; bucket++)
+			if (bucketIds[bucket] >= oldestBucketId)
+				sum += amounts[bucket];
+		return sum;
+	}
+}
@@ -3,7 +3,9 @@ package com.sayedbaladoh.ecommerce.service.impl;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
@@ -14,8 +16,11 @@ import com.sayedbaladoh.ecommerce.service.PaymentGateway;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.checkout.SessionCreateParams;
 
+@Profile("!" + SimulatedPaymentService.PROFILE)
+@Qualifier(PaymentGateway.PROVIDER)
 @Service
 public class StripePaymentService implements PaymentGateway {
 
@@ -25,6 +30,24 @@ public class StripePaymentService implements PaymentGateway {
 	@Value("${STRIPE_SECRET_KEY}")
 	private String apiKey;
 
+	/*
+	 * Kept below the payment gateway call timeout, so a slow call ends before the
+	 * checkout gives up on it and its session is never created unseen.
+	 */
+	@Value("${app.payment.stripe.connectTimeoutInMs:2000}")
+	private int connectTimeoutInMs;
+
+	@Value("${app.payment.stripe.readTimeoutInMs:7000}")
+	private int readTimeoutInMs;
+
+	/*
+	 * The sessions expire with the stock reservation of their order, so an order
+	 * is not paid once its stock is given back. Stripe accepts 30 minutes to 24
+	 * hours.
+	 */
+	@Value("${app.inventory.reservationTtlInMs:1800000}")
+	private long reservationTtlInMs;
+
 	@Override
 	public CheckoutSession createCheckoutSession(Order order) {
 
@@ -41,10 +64,12 @@ public class StripePaymentService implements PaymentGateway {
 		SessionCreateParams params = SessionCreateParams.builder()
 				.addPaymentMethodType(SessionCreateParams.PaymentMethodType.CARD)
 				.setMode(SessionCreateParams.Mode.PAYMENT).setCancelUrl(failedURL).addAllLineItem(sessionItemsList)
-				.setSuccessUrl(successURL).build();
+				.setSuccessUrl(successURL)
+				.putExtraParam("expires_at", (System.currentTimeMillis() + reservationTtlInMs) / 1000).build();
 
 		try {
-			Session session = Session.create(params);
+			Session session = Session.create(params, RequestOptions.builder().setConnectTimeout(connectTimeoutInMs)
+					.setReadTimeout(readTimeoutInMs).build());
 
 			return CheckoutSession.builder().orderId(order.getId()).sessionId(session.getId())
 					.paymentStatus(session.getPaymentStatus()).url(session.getUrl()).build();
@@ -53,9 +78,22 @@ public class StripePaymentService implements PaymentGateway {
 		}
 	}
 
+	@Override
+	public String getPaymentStatus(String sessionId) {
+
+		Stripe.apiKey = apiKey;
+
+		try {
+			return Session.retrieve(sessionId, RequestOptions.builder().setConnectTimeout(connectTimeoutInMs)
+					.setReadTimeout(readTimeoutInMs).build()).getPaymentStatus();
+		} catch (StripeException e) {
+			throw new PaymentGetwayException(e.getMessage(), e.getCause());
+		}
+	}
+
 	private SessionCreateParams.LineItem.PriceData createPriceData(OrderItem checkoutItem) {
 		return SessionCreateParams.LineItem.PriceData.builder().setCurrency("usd")
-				.setUnitAmount(((long) checkoutItem.getProduct().getPrice()) * 100)
+				.setUnitAmount(checkoutItem.getUnitPriceInCents())
 				.setProductData(SessionCreateParams.LineItem.PriceData.ProductData.builder()
 						.setName(checkoutItem.getProduct().getName()).build())
 				.build();
@@ -0,0 +1,57 @@
+package com.sayedbaladoh.ecommerce.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.sayedbaladoh.ecommerce.exception.BadRequestException;
+
+/*
+ * Encodes the sort keys of the last row of a slice (e.g. its created date and
+ * id) in an opaque URL safe token, the next slice seeks past these keys.
+ */
+public final class KeysetCursor {
+
+	public static final int MAX_SIZE = 100;
+
+	private static final String SEPARATOR = ":";
+
+	private KeysetCursor() {
+	}
+
+	/*
+	 * The limit of a slice, one more row is read to know if there is a next one.
+	 */
+	public static Pageable limit(int size) {
+		return PageRequest.of(0, Math.min(Math.max(size, 1), MAX_SIZE));
+	}
+
+	public static String encode(long... keys) {
+		StringBuilder cursor = new StringBuilder();
+		for (long key : keys) {
+			if (cursor.length() > 0)
+				cursor.append(SEPARATOR);
+			cursor.append(key);
+		}
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static long[] decode(String cursor, int numberOfKeys) {
+		try {
+			String[] values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+					.split(SEPARATOR);
+			if (values.length != numberOfKeys)
+				throw new BadRequestException("Invalid cursor.");
+
+			long[] keys = new long[numberOfKeys];
+			for (int i = 0; i < numberOfKeys; i++)
+				keys[i] = Long.parseLong(values[i]);
+			return keys;
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor.");
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.sayedbaladoh.ecommerce.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/*
+ * Money amounts are kept as long cents, so their arithmetic is exact. The
+ * amounts in units (e.g. the API prices) are converted at the boundaries.
+ */
+public final class MoneyUtil {
+
+	private static final int CENTS_SCALE = 2;
+
+	private MoneyUtil() {
+	}
+
+	public static long toCents(double units) {
+		return BigDecimal.valueOf(units).movePointRight(CENTS_SCALE).setScale(0, RoundingMode.HALF_UP)
+				.longValueExact();
+	}
+
+	public static double toUnits(long cents) {
+		return BigDecimal.valueOf(cents, CENTS_SCALE).doubleValue();
+	}
+
+	public static long multiply(long cents, int quantity) {
+		return Math.multiplyExact(cents, quantity);
+	}
+}
@@ -1,8 +1,13 @@
 package com.sayedbaladoh.ecommerce.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.PostConstruct;
 
@@ -11,15 +16,29 @@ import org.modelmapper.convention.MatchingStrategies;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import com.sayedbaladoh.ecommerce.util.mapper.TypeMapper;
 
 @Component
 public class ObjectMapperHelper {
 
 	private final ModelMapper modelMapper;
 
+	private final Map<Class<?>, Map<Class<?>, TypeMapper<?, ?>>> typeMappers = new HashMap<>();
+
+	/*
+	 * Type mappers resolved for the runtime source classes (e.g. hibernate
+	 * proxies resolve to the type mappers of their entity class).
+	 */
+	private final ConcurrentMap<Class<?>, Map<Class<?>, TypeMapper<?, ?>>> resolvedTypeMappers = new ConcurrentHashMap<>();
+
 	@Autowired
-	public ObjectMapperHelper(ModelMapper modelMapper) {
+	public ObjectMapperHelper(ModelMapper modelMapper, List<TypeMapper<?, ?>> typeMappers) {
 		this.modelMapper = modelMapper;
+		typeMappers.forEach(typeMapper -> this.typeMappers
+				.computeIfAbsent(typeMapper.getSourceType(), type -> new HashMap<>())
+				.put(typeMapper.getDestinationType(), typeMapper));
 	}
 
 	@PostConstruct
@@ -27,20 +46,50 @@ public class ObjectMapperHelper {
 		modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
 	}
 
+	/*
+	 * Maps by the registered type mapper of the source and destination types,
+	 * falling back to the ModelMapper for unknown pairs.
+	 */
 	public <S, D> D map(final S source, Class<D> outClass) {
-		return modelMapper.map(source, outClass);
+		Assert.notNull(source, "source cannot be null");
+		TypeMapper<S, D> typeMapper = findTypeMapper(source.getClass(), outClass);
+		return typeMapper != null ? typeMapper.map(source) : modelMapper.map(source, outClass);
 	}
 
 	public <S, D> D map(final S source, D destination) {
+		Assert.notNull(source, "source cannot be null");
+		Assert.notNull(destination, "destination cannot be null");
+		TypeMapper<S, D> typeMapper = findTypeMapper(source.getClass(), destination.getClass());
+		if (typeMapper != null)
+			return typeMapper.map(source, destination);
+
 		modelMapper.map(source, destination);
 		return destination;
 	}
 
 	public <S, D> List<D> mapAll(final Collection<S> sourceList, Class<D> outClass) {
-		return sourceList.stream().map(entity -> map(entity, outClass)).collect(Collectors.toList());
+		List<D> destinationList = new ArrayList<>(sourceList.size());
+		for (S source : sourceList)
+			destinationList.add(map(source, outClass));
+		return destinationList;
 	}
 
 	public <S, D> Page<D> mapAll(Page<S> source, Class<D> outClass) {
 		return source.map(s -> map(s, outClass));
 	}
+
+	@SuppressWarnings("unchecked")
+	private <S, D> TypeMapper<S, D> findTypeMapper(Class<?> sourceClass, Class<?> destinationClass) {
+		return (TypeMapper<S, D>) resolvedTypeMappers.computeIfAbsent(sourceClass, this::resolveTypeMappers)
+				.get(destinationClass);
+	}
+
+	private Map<Class<?>, TypeMapper<?, ?>> resolveTypeMappers(Class<?> sourceClass) {
+		for (Class<?> type = sourceClass; type != null; type = type.getSuperclass()) {
+			Map<Class<?>, TypeMapper<?, ?>> destinationTypeMappers = typeMappers.get(type);
+			if (destinationTypeMappers != null)
+				return destinationTypeMappers;
+		}
+		return Collections.emptyMap();
+	}
 }
@@ -0,0 +1,34 @@
+package com.sayedbaladoh.ecommerce.util.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.model.Product;
+
+@Component
+public class OrderItemRequestMapper implements TypeMapper<OrderItemDto, OrderItem> {
+
+	@Override
+	public Class<OrderItemDto> getSourceType() {
+		return OrderItemDto.class;
+	}
+
+	@Override
+	public Class<OrderItem> getDestinationType() {
+		return OrderItem.class;
+	}
+
+	@Override
+	public OrderItem map(OrderItemDto source) {
+		return map(source, new OrderItem());
+	}
+
+	@Override
+	public OrderItem map(OrderItemDto source, OrderItem destination) {
+		destination.setQuantity(source.getQuantity());
+		if (source.getProduct() != null)
+			destination.setProduct(new Product(source.getProduct().getId()));
+		return destination;
+	}
+}
@@ -0,0 +1,40 @@
+package com.sayedbaladoh.ecommerce.util.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemResponseDto;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Component
+public class OrderItemResponseMapper implements TypeMapper<OrderItem, OrderItemResponseDto> {
+
+	private final ProductResponseMapper productResponseMapper;
+
+	@Override
+	public Class<OrderItem> getSourceType() {
+		return OrderItem.class;
+	}
+
+	@Override
+	public Class<OrderItemResponseDto> getDestinationType() {
+		return OrderItemResponseDto.class;
+	}
+
+	@Override
+	public OrderItemResponseDto map(OrderItem source) {
+		return map(source, new OrderItemResponseDto());
+	}
+
+	@Override
+	public OrderItemResponseDto map(OrderItem source, OrderItemResponseDto destination) {
+		destination.setQuantity(source.getQuantity());
+		destination.setUnitPrice(MoneyUtil.toUnits(source.getUnitPriceInCents()));
+		if (source.getProduct() != null)
+			destination.setProduct(productResponseMapper.map(source.getProduct()));
+		return destination;
+	}
+}
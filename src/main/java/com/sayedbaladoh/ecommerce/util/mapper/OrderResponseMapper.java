@@ -0,0 +1,58 @@
+package com.sayedbaladoh.ecommerce.util.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemResponseDto;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Component
+public class OrderResponseMapper implements TypeMapper<Order, OrderResponseDto> {
+
+	private final OrderItemResponseMapper orderItemResponseMapper;
+	private final UserSummaryMapper userSummaryMapper;
+
+	@Override
+	public Class<Order> getSourceType() {
+		return Order.class;
+	}
+
+	@Override
+	public Class<OrderResponseDto> getDestinationType() {
+		return OrderResponseDto.class;
+	}
+
+	@Override
+	public OrderResponseDto map(Order source) {
+		return map(source, new OrderResponseDto());
+	}
+
+	@Override
+	public OrderResponseDto map(Order source, OrderResponseDto destination) {
+		destination.setId(source.getId());
+		destination.setStatus(source.getStatus());
+		destination.setCreatedDate(source.getCreatedDate());
+		destination.setUpdatedDate(source.getUpdatedDate());
+		if (source.getUser() != null)
+			destination.setUser(userSummaryMapper.map(source.getUser()));
+
+		List<OrderItem> orderItems = source.getOrderItems();
+		if (orderItems != null) {
+			List<OrderItemResponseDto> orderItemDtos = new ArrayList<>(orderItems.size());
+			for (OrderItem orderItem : orderItems)
+				orderItemDtos.add(orderItemResponseMapper.map(orderItem));
+			destination.setOrderItems(orderItemDtos);
+		}
+		destination.setNumberOfProducts(source.getItemCount());
+		destination.setTotalOrderPrice(MoneyUtil.toUnits(source.getSubtotalInCents()));
+		return destination;
+	}
+}
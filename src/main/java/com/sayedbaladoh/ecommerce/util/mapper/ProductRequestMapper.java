@@ -0,0 +1,38 @@
+package com.sayedbaladoh.ecommerce.util.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ecommerce.dto.product.ProductRequestDto;
+import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+
+@Component
+public class ProductRequestMapper implements TypeMapper<ProductRequestDto, Product> {
+
+	@Override
+	public Class<ProductRequestDto> getSourceType() {
+		return ProductRequestDto.class;
+	}
+
+	@Override
+	public Class<Product> getDestinationType() {
+		return Product.class;
+	}
+
+	@Override
+	public Product map(ProductRequestDto source) {
+		return map(source, new Product());
+	}
+
+	@Override
+	public Product map(ProductRequestDto source, Product destination) {
+		destination.setName(source.getName());
+		destination.setPriceInCents(MoneyUtil.toCents(source.getPrice()));
+		destination.setAvailable(source.isAvailable());
+		if (source.getStock() != null)
+			destination.setStock(source.getStock());
+		destination.setImageURL(source.getImageURL());
+		destination.setDescription(source.getDescription());
+		return destination;
+	}
+}
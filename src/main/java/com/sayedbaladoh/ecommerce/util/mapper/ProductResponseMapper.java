@@ -0,0 +1,38 @@
+package com.sayedbaladoh.ecommerce.util.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
+import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+
+@Component
+public class ProductResponseMapper implements TypeMapper<Product, ProductResponseDto> {
+
+	@Override
+	public Class<Product> getSourceType() {
+		return Product.class;
+	}
+
+	@Override
+	public Class<ProductResponseDto> getDestinationType() {
+		return ProductResponseDto.class;
+	}
+
+	@Override
+	public ProductResponseDto map(Product source) {
+		return map(source, new ProductResponseDto());
+	}
+
+	@Override
+	public ProductResponseDto map(Product source, ProductResponseDto destination) {
+		destination.setId(source.getId());
+		destination.setName(source.getName());
+		destination.setPrice(MoneyUtil.toUnits(source.getPriceInCents()));
+		destination.setAvailable(source.isAvailable());
+		destination.setStock(source.getStock());
+		destination.setImageURL(source.getImageURL());
+		destination.setDescription(source.getDescription());
+		return destination;
+	}
+}
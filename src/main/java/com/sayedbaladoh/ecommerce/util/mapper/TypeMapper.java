@@ -0,0 +1,20 @@
+package com.sayedbaladoh.ecommerce.util.mapper;
+
+/**
+ * Hand written mapping between a source and a destination type.
+ * 
+ * Type mappers are picked by {@link com.sayedbaladoh.ecommerce.util.ObjectMapperHelper}
+ * for their source and destination types instead of the reflective ModelMapper.
+ * 
+ * @author SayedBaladoh
+ */
+public interface TypeMapper<S, D> {
+
+	Class<S> getSourceType();
+
+	Class<D> getDestinationType();
+
+	D map(S source);
+
+	D map(S source, D destination);
+}
@@ -0,0 +1,33 @@
+package com.sayedbaladoh.ecommerce.util.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ecommerce.dto.user.UserSummary;
+import com.sayedbaladoh.ecommerce.model.User;
+
+@Component
+public class UserSummaryMapper implements TypeMapper<User, UserSummary> {
+
+	@Override
+	public Class<User> getSourceType() {
+		return User.class;
+	}
+
+	@Override
+	public Class<UserSummary> getDestinationType() {
+		return UserSummary.class;
+	}
+
+	@Override
+	public UserSummary map(User source) {
+		return map(source, new UserSummary());
+	}
+
+	@Override
+	public UserSummary map(User source, UserSummary destination) {
+		destination.setId(source.getId());
+		destination.setName(source.getName());
+		destination.setEmail(source.getEmail());
+		return destination;
+	}
+}
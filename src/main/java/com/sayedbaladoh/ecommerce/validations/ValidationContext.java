@@ -1,38 +1,107 @@
 package com.sayedbaladoh.ecommerce.validations;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationCost;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationDomain;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
 
-import lombok.RequiredArgsConstructor;
-
-@RequiredArgsConstructor
 @Component
 public class ValidationContext {
 
+	/* Cheap validations first, the fail fast ones first within the same cost */
+	private static final Comparator<ValidationStrategy> EXECUTION_ORDER = Comparator
+			.comparing(ValidationStrategy::getCost).thenComparing(strategy -> !strategy.isFailFast());
+
 	private final ValidationStrategyFactory validatorFactory;
+	private final ExecutorService validationExecutor;
+
+	public ValidationContext(ValidationStrategyFactory validatorFactory,
+			@Qualifier("validationExecutor") ExecutorService validationExecutor) {
+		this.validatorFactory = validatorFactory;
+		this.validationExecutor = validationExecutor;
+	}
 
 	/*
 	 * This method performs validation for specific type.
 	 */
 	public <T> boolean execute(ValidationType type, T input) {
 		ValidationStrategy strategy = validatorFactory.findStrategy(type);
-		return strategy.validate(input);
+		return strategy.validate(input).isValid();
 	}
 
 	/*
-	 * This method performs all validation for specific domain one by one and add
-	 * the invalid one into a set if found and returns that set.
+	 * This method performs all validation for specific domain and add the invalid
+	 * one into a set if found and returns that set. The in memory validations run
+	 * one by one on the calling thread, then the I/O bound ones run concurrently,
+	 * so their latency is the slowest one instead of their sum. A failing fail
+	 * fast validation returns the violations found so far.
 	 */
 	public <T> Set<ValidationViolation> execute(ValidationDomain domain, T input) {
-		Set<ValidationStrategy> validationStrategies = validatorFactory.findStrategy(domain);
-		return validationStrategies.stream().filter(strategy -> !strategy.validate(input))
-				.map(strategy -> new ValidationViolation(strategy.getType(), strategy.getMessage()))
-				.collect(Collectors.toSet());
+		List<ValidationStrategy> validationStrategies = validatorFactory.findStrategy(domain).stream()
+				.sorted(EXECUTION_ORDER).collect(Collectors.toList());
+
+		Set<ValidationViolation> violations = new HashSet<>();
+		List<ValidationStrategy> ioBoundStrategies = new ArrayList<>();
+		for (ValidationStrategy strategy : validationStrategies) {
+			if (strategy.getCost() == ValidationCost.IO) {
+				ioBoundStrategies.add(strategy);
+				continue;
+			}
+			Optional<ValidationViolation> violation = validate(strategy, input);
+			violation.ifPresent(violations::add);
+			if (violation.isPresent() && strategy.isFailFast())
+				return violations;
+		}
+
+		/* A single I/O bound validation is not worth a thread hand off */
+		if (ioBoundStrategies.size() == 1) {
+			validate(ioBoundStrategies.get(0), input).ifPresent(violations::add);
+			return violations;
+		}
+
+		List<CompletableFuture<Optional<ValidationViolation>>> results = ioBoundStrategies.stream()
+				.map(strategy -> CompletableFuture.supplyAsync(() -> validate(strategy, input), validationExecutor))
+				.collect(Collectors.toList());
+		for (int i = 0; i < results.size(); i++) {
+			Optional<ValidationViolation> violation = join(results.get(i));
+			violation.ifPresent(violations::add);
+			if (violation.isPresent() && ioBoundStrategies.get(i).isFailFast()) {
+				/* The validations not started yet are skipped */
+				results.forEach(result -> result.cancel(false));
+				break;
+			}
+		}
+		return violations;
+	}
+
+	private <T> Optional<ValidationViolation> validate(ValidationStrategy strategy, T input) {
+		ValidationResult result = strategy.validate(input);
+		return result.isValid() ? Optional.empty()
+				: Optional.of(new ValidationViolation(strategy.getType(), result.getMessage()));
+	}
+
+	/* Rethrows the failure of a validation as if it ran on the calling thread */
+	private Optional<ValidationViolation> join(CompletableFuture<Optional<ValidationViolation>> result) {
+		try {
+			return result.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
 	}
 
 }
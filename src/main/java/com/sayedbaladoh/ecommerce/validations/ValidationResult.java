@@ -0,0 +1,28 @@
+package com.sayedbaladoh.ecommerce.validations;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/*
+ * Immutable outcome of a single validation call, so the validation strategies
+ * keep no per request state and can validate concurrently.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ValidationResult {
+
+	private static final ValidationResult VALID = new ValidationResult(true, null);
+
+	private final boolean valid;
+
+	private final String message;
+
+	public static ValidationResult valid() {
+		return VALID;
+	}
+
+	public static ValidationResult invalid(String message) {
+		return new ValidationResult(false, message);
+	}
+}
@@ -1,5 +1,6 @@
 package com.sayedbaladoh.ecommerce.validations;
 
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationCost;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationDomain;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
 
@@ -9,8 +10,25 @@ public interface ValidationStrategy {
 
 	ValidationType getType();
 
-	String getMessage();
+	/*
+	 * The in memory validations run first, on the calling thread, the I/O bound
+	 * ones run concurrently after them.
+	 */
+	default ValidationCost getCost() {
+		return ValidationCost.IN_MEMORY;
+	}
 
-	<T> boolean validate(T input);
+	/*
+	 * A failing fail fast validation skips the validations not started yet.
+	 */
+	default boolean isFailFast() {
+		return false;
+	}
+
+	/*
+	 * A new result per call, the strategies are shared by the concurrent
+	 * requests.
+	 */
+	<T> ValidationResult validate(T input);
 
 }
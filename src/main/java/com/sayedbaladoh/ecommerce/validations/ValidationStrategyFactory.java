@@ -1,5 +1,8 @@
 package com.sayedbaladoh.ecommerce.validations;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -16,18 +19,42 @@ public class ValidationStrategyFactory {
 
 	private Map<ValidationType, ValidationStrategy> validationTypeStrategies;
 	private Map<ValidationDomain, Set<ValidationStrategy>> validationDomainStrategies;
+	private final List<ValidationStrategyProvider> validationStrategyProviders;
 
-	@Autowired
 	public ValidationStrategyFactory(Set<ValidationStrategy> validationStrategies) {
+		this(validationStrategies, Collections.emptyList());
+	}
+
+	@Autowired
+	public ValidationStrategyFactory(Set<ValidationStrategy> validationStrategies,
+			List<ValidationStrategyProvider> validationStrategyProviders) {
+		this.validationStrategyProviders = validationStrategyProviders;
 		createStrategy(validationStrategies);
 	}
 
 	public ValidationStrategy findStrategy(ValidationType type) {
-		return validationTypeStrategies.get(type);
+		ValidationStrategy strategy = validationTypeStrategies.get(type);
+		if (strategy != null)
+			return strategy;
+		return validationStrategyProviders.stream().flatMap(provider -> provider.getStrategies().stream())
+				.filter(providedStrategy -> providedStrategy.getType() == type).findFirst().orElse(null);
 	}
 
+	/*
+	 * The registered strategies of the domain along the current ones of the
+	 * providers.
+	 */
 	public Set<ValidationStrategy> findStrategy(ValidationDomain domain) {
-		return validationDomainStrategies.get(domain);
+		Set<ValidationStrategy> strategies = validationDomainStrategies.getOrDefault(domain, Collections.emptySet());
+		if (validationStrategyProviders.isEmpty())
+			return strategies;
+
+		Set<ValidationStrategy> allStrategies = new HashSet<>(strategies);
+		for (ValidationStrategyProvider provider : validationStrategyProviders)
+			for (ValidationStrategy strategy : provider.getStrategies())
+				if (strategy.getDomain() == domain)
+					allStrategies.add(strategy);
+		return allStrategies;
 	}
 
 	private void createStrategy(Set<ValidationStrategy> validationSet) {
@@ -0,0 +1,13 @@
+package com.sayedbaladoh.ecommerce.validations;
+
+import java.util.Collection;
+
+/*
+ * Source of validation strategies that change at runtime (e.g. reloaded rules),
+ * looked up on each validation instead of being registered once.
+ */
+public interface ValidationStrategyProvider {
+
+	Collection<? extends ValidationStrategy> getStrategies();
+
+}
@@ -0,0 +1,6 @@
+package com.sayedbaladoh.ecommerce.validations.enums;
+
+public enum ValidationCost {
+	IN_MEMORY,
+	IO
+}
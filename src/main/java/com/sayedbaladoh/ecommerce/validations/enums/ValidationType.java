@@ -2,7 +2,9 @@ package com.sayedbaladoh.ecommerce.validations.enums;
 
 public enum ValidationType {	
 	BASKET_ITEMS_AVAILABILITY,
+	BASKET_ITEMS_STOCK,
 	TOTAL_BASKET_MONEY,
 	USER_FRAUD,
+	USER_FRAUD_VELOCITY,
 	Products_Existence
 }
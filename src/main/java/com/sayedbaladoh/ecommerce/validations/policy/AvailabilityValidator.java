@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.validations.ValidationResult;
 import com.sayedbaladoh.ecommerce.validations.ValidationStrategy;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationDomain;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
@@ -16,8 +17,6 @@ public class AvailabilityValidator implements ValidationStrategy {
 	@Value("${checkout.constraints.basket.items.availability.message}")
 	private String messagePreFix;
 
-	private String message;
-
 	@Override
 	public ValidationDomain getDomain() {
 		return ValidationDomain.CHECK_OUT;
@@ -29,17 +28,12 @@ public class AvailabilityValidator implements ValidationStrategy {
 	}
 
 	@Override
-	public String getMessage() {
-		return message;
-	}
-
-	@Override
-	public <T> boolean validate(T o) {
+	public <T> ValidationResult validate(T o) {
 		String notAvailableItems = ((Order) o).getOrderItems().stream().filter(item -> !item.getProduct().isAvailable())
 				.map(item -> "#" + item.getProduct().getId() + "- " + item.getProduct().getName())
 				.collect(Collectors.joining(", ", "{", "}"));
-		message = messagePreFix + notAvailableItems;
-		return notAvailableItems.equals("{}");
+		return notAvailableItems.equals("{}") ? ValidationResult.valid()
+				: ValidationResult.invalid(messagePreFix + notAvailableItems);
 	}
 
 }
@@ -1,15 +1,17 @@
 package com.sayedbaladoh.ecommerce.validations.policy;
 
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
-import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
 import com.sayedbaladoh.ecommerce.service.ProductService;
+import com.sayedbaladoh.ecommerce.validations.ValidationResult;
 import com.sayedbaladoh.ecommerce.validations.ValidationStrategy;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationCost;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationDomain;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
 
@@ -24,8 +26,6 @@ public class ProductsExistenceValidator implements ValidationStrategy {
 	@Value("${constraints.product.existence.message}")
 	private String messagePreFix;
 
-	private String message;
-
 	@Override
 	public ValidationDomain getDomain() {
 		return ValidationDomain.ORDER_SAVE;
@@ -37,17 +37,17 @@ public class ProductsExistenceValidator implements ValidationStrategy {
 	}
 
 	@Override
-	public String getMessage() {
-		return message;
+	public ValidationCost getCost() {
+		return ValidationCost.IO;
 	}
 
 	@Override
-	public <T> boolean validate(T o) {
-		List<OrderItemDto> list = ((OrderDto) o).getOrderItems().stream()
-				.filter(op -> productService.getProduct(op.getProduct().getId()).isEmpty())
-				.collect(Collectors.toList());
-		message = messagePreFix + list.stream().map(item -> "#" + item.getProduct().getId())
-				.collect(Collectors.joining(", ", "{", "}"));
-		return list.isEmpty();
+	public <T> ValidationResult validate(T o) {
+		Set<Long> productIds = ((OrderDto) o).getOrderItems().stream().map(item -> item.getProduct().getId())
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+		Set<Long> missingIds = productService.getMissingProductIds(productIds);
+		return missingIds.isEmpty() ? ValidationResult.valid()
+				: ValidationResult.invalid(messagePreFix
+						+ missingIds.stream().map(id -> "#" + id).collect(Collectors.joining(", ", "{", "}")));
 	}
 }
@@ -0,0 +1,43 @@
+package com.sayedbaladoh.ecommerce.validations.rules;
+
+import java.util.function.Predicate;
+
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.validations.ValidationResult;
+import com.sayedbaladoh.ecommerce.validations.ValidationStrategy;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationDomain;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * A configured checkout rule, the checked out order must satisfy its compiled
+ * condition.
+ */
+@Getter
+@AllArgsConstructor
+public class CheckoutRule implements ValidationStrategy {
+
+	private final String name;
+
+	private final ValidationType type;
+
+	private final String condition;
+
+	private final Predicate<Order> compiledCondition;
+
+	private final String message;
+
+	private final boolean failFast;
+
+	@Override
+	public ValidationDomain getDomain() {
+		return ValidationDomain.CHECK_OUT;
+	}
+
+	@Override
+	public <T> ValidationResult validate(T o) {
+		return compiledCondition.test((Order) o) ? ValidationResult.valid() : ValidationResult.invalid(message);
+	}
+}
@@ -0,0 +1,171 @@
+package com.sayedbaladoh.ecommerce.validations.rules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.service.FraudVelocityService;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+import com.sayedbaladoh.ecommerce.validations.ValidationStrategyProvider;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Checkout rules defined in a properties file, each one by its name with the
+ * validation type of its violations:
+ *
+ * fraud.maxSubtotal.type = USER_FRAUD
+ * fraud.maxSubtotal.condition = subtotal <= 1500
+ * fraud.maxSubtotal.message = User is fraud.
+ * fraud.maxSubtotal.failFast = false
+ *
+ * Along the order variables, the conditions see the velocity of the order user
+ * (user.ordersLastMinute, user.spendLastHour and user.spendLastDay). The orders
+ * are counted when they are created, so the checked out order is counted only
+ * in the windows it was created within. The rules are compiled when loaded, and reloaded when the
+ * file changes, so the location must be a file (e.g. file:config/...) to edit
+ * them without a restart, the classpath default is fixed once packaged. A
+ * reload compiles all the rules before swapping them in, an invalid file keeps
+ * the previous rules.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class CheckoutRuleEngine implements ValidationStrategyProvider {
+
+	private static final String TYPE = ".type";
+	private static final String CONDITION = ".condition";
+	private static final String MESSAGE = ".message";
+	private static final String FAIL_FAST = ".failFast";
+
+	private final ResourceLoader resourceLoader;
+	private final FraudVelocityService fraudVelocityService;
+
+	@Value("${app.rules.checkout.location:classpath:rules/checkout-rules.properties}")
+	private String location;
+
+	private volatile List<CheckoutRule> rules = Collections.emptyList();
+
+	private volatile long lastModified;
+
+	/* Invalid rules fail the startup */
+	@PostConstruct
+	public void init() {
+		reload();
+		if (!resourceLoader.getResource(location).isFile())
+			log.warn("Checkout rules at {} are not a file and will not be reloaded, "
+					+ "set app.rules.checkout.location to a file: location to change them without a restart", location);
+	}
+
+	@Scheduled(fixedDelayString = "${app.rules.checkout.reloadIntervalInMs:10000}")
+	public void reloadIfModified() {
+		try {
+			if (lastModified(resourceLoader.getResource(location)) > lastModified)
+				reload();
+		} catch (RuntimeException e) {
+			log.error("Invalid checkout rules at {}, the previous rules are kept", location, e);
+		}
+	}
+
+	public synchronized void reload() {
+		Resource resource = resourceLoader.getResource(location);
+		long modified = lastModified(resource);
+		Properties properties = new Properties();
+		try (InputStream input = resource.getInputStream();
+				Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read the checkout rules at " + location, e);
+		}
+
+		rules = compile(properties);
+		lastModified = modified;
+		log.info("Loaded {} checkout rules from {}", rules.size(), location);
+	}
+
+	@Override
+	public List<CheckoutRule> getStrategies() {
+		return rules;
+	}
+
+	List<CheckoutRule> compile(Properties properties) {
+		Set<String> names = new TreeSet<>();
+		for (String key : properties.stringPropertyNames()) {
+			int separator = key.lastIndexOf('.');
+			if (separator <= 0)
+				throw new IllegalArgumentException("Invalid checkout rule property: " + key);
+			names.add(key.substring(0, separator));
+		}
+
+		List<CheckoutRule> compiledRules = new ArrayList<>();
+		for (String name : names) {
+			String type = required(properties, name + TYPE);
+			ValidationType validationType;
+			try {
+				validationType = ValidationType.valueOf(type);
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Unknown validation type of checkout rule " + name + ": " + type);
+			}
+			String condition = required(properties, name + CONDITION);
+			compiledRules.add(new CheckoutRule(name, validationType, condition,
+					RuleExpressionCompiler.compile(condition, velocityVariables()),
+					required(properties, name + MESSAGE),
+					Boolean.parseBoolean(properties.getProperty(name + FAIL_FAST, "false").trim())));
+		}
+		return Collections.unmodifiableList(compiledRules);
+	}
+
+	private Map<String, ToDoubleFunction<Order>> velocityVariables() {
+		Map<String, ToDoubleFunction<Order>> variables = new HashMap<>();
+		variables.put("user.ordersLastMinute", velocity(fraudVelocityService::getOrdersLastMinute));
+		variables.put("user.spendLastHour",
+				velocity(userId -> MoneyUtil.toUnits(fraudVelocityService.getSpendLastHourInCents(userId))));
+		variables.put("user.spendLastDay",
+				velocity(userId -> MoneyUtil.toUnits(fraudVelocityService.getSpendLastDayInCents(userId))));
+		return variables;
+	}
+
+	/* Guest orders have no velocity */
+	private static ToDoubleFunction<Order> velocity(Function<Long, Number> userVelocity) {
+		return order -> order.getUser() == null ? 0 : userVelocity.apply(order.getUser().getId()).doubleValue();
+	}
+
+	private static String required(Properties properties, String key) {
+		String value = properties.getProperty(key);
+		if (value == null || value.trim().isEmpty())
+			throw new IllegalArgumentException("Missing checkout rule property: " + key);
+		return value.trim();
+	}
+
+	/* Resources without a modification time (e.g. in a jar) are never reloaded */
+	private static long lastModified(Resource resource) {
+		try {
+			return resource.lastModified();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package com.sayedbaladoh.ecommerce.validations.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.User;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * Compiles a rule condition, e.g. "subtotal > 100 and not (user.id == 3)", into
+ * a tree of predicates over the order, so the condition is parsed once and its
+ * evaluation does no parsing nor variable lookup. The grammar is:
+ *
+ * condition  := and ('or' and)*
+ * and        := not ('and' not)*
+ * not        := 'not' not | '(' condition ')' | comparison | boolean operand
+ * comparison := operand ('==' | '!=' | '<' | '<=' | '>' | '>=') operand
+ * operand    := variable | number | 'string' | true | false
+ *
+ * Strings and booleans are compared by == and != only. Money is in units.
+ * Additional number variables (e.g. backed by a service) are given on compile.
+ */
+class RuleExpressionCompiler {
+
+	private static final Pattern TOKEN = Pattern
+			.compile("\\s*(?:(\\d+(?:\\.\\d+)?)|'([^']*)'|([A-Za-z_][A-Za-z0-9_.]*)|(==|!=|<=|>=|<|>|\\(|\\)))");
+
+	private static final Map<String, Operand> VARIABLES = new HashMap<>();
+
+	static {
+		VARIABLES.put("subtotal", Operand.number(order -> MoneyUtil.toUnits(order.getSubtotalInCents())));
+		VARIABLES.put("itemCount", Operand.number(Order::getItemCount));
+		VARIABLES.put("unavailableItemCount", Operand.number(
+				order -> order.getOrderItems().stream().filter(item -> !item.getProduct().isAvailable()).count()));
+		VARIABLES.put("allItemsAvailable", Operand.bool(
+				order -> order.getOrderItems().stream().allMatch(item -> item.getProduct().isAvailable())));
+		/* Without a user (a guest order) its id is NaN, matching no comparison but != */
+		VARIABLES.put("user.id",
+				Operand.number(order -> order.getUser() == null ? Double.NaN : order.getUser().getId()));
+		VARIABLES.put("user.email", Operand.string(order -> userAttribute(order, User::getEmail)));
+		VARIABLES.put("user.name", Operand.string(order -> userAttribute(order, User::getName)));
+	}
+
+	private final String expression;
+	private final Map<String, ToDoubleFunction<Order>> numberVariables;
+	private final List<String> tokens = new ArrayList<>();
+	private int position;
+
+	private RuleExpressionCompiler(String expression, Map<String, ToDoubleFunction<Order>> numberVariables) {
+		this.expression = expression;
+		this.numberVariables = numberVariables;
+	}
+
+	static Predicate<Order> compile(String expression) {
+		return compile(expression, Collections.emptyMap());
+	}
+
+	/*
+	 * Throws IllegalArgumentException when the expression is invalid.
+	 */
+	static Predicate<Order> compile(String expression, Map<String, ToDoubleFunction<Order>> numberVariables) {
+		RuleExpressionCompiler compiler = new RuleExpressionCompiler(expression, numberVariables);
+		compiler.tokenize();
+		Predicate<Order> condition = compiler.or();
+		if (compiler.position < compiler.tokens.size())
+			throw compiler.error("Unexpected '" + compiler.tokens.get(compiler.position) + "'");
+		return condition;
+	}
+
+	private void tokenize() {
+		Matcher matcher = TOKEN.matcher(expression);
+		int end = 0;
+		while (end < expression.length() && matcher.find(end) && matcher.start() == end) {
+			tokens.add(matcher.group(2) != null ? "'" + matcher.group(2) + "'" : matcher.group().trim());
+			end = matcher.end();
+		}
+		if (!expression.substring(end).trim().isEmpty())
+			throw error("Invalid character at " + end);
+		if (tokens.isEmpty())
+			throw error("Empty condition");
+	}
+
+	private Predicate<Order> or() {
+		Predicate<Order> condition = and();
+		while (accept("or"))
+			condition = condition.or(and());
+		return condition;
+	}
+
+	private Predicate<Order> and() {
+		Predicate<Order> condition = not();
+		while (accept("and"))
+			condition = condition.and(not());
+		return condition;
+	}
+
+	private Predicate<Order> not() {
+		if (accept("not"))
+			return not().negate();
+		if (accept("(")) {
+			Predicate<Order> condition = or();
+			expect(")");
+			return condition;
+		}
+
+		Operand left = operand();
+		String operator = peek();
+		if (operator == null || !operator.matches("==|!=|<=|>=|<|>")) {
+			if (left.getType() != Type.BOOLEAN)
+				throw error("Expected a comparison after " + left.getType().name().toLowerCase());
+			return left.getBool();
+		}
+		position++;
+		return compare(left, operator, operand());
+	}
+
+	private Predicate<Order> compare(Operand left, String operator, Operand right) {
+		if (left.getType() != right.getType())
+			throw error("Cannot compare " + left.getType().name().toLowerCase() + " with "
+					+ right.getType().name().toLowerCase());
+
+		if (left.getType() == Type.NUMBER) {
+			ToDoubleFunction<Order> l = left.getNumber();
+			ToDoubleFunction<Order> r = right.getNumber();
+			switch (operator) {
+			case "==":
+				return order -> l.applyAsDouble(order) == r.applyAsDouble(order);
+			case "!=":
+				return order -> l.applyAsDouble(order) != r.applyAsDouble(order);
+			case "<":
+				return order -> l.applyAsDouble(order) < r.applyAsDouble(order);
+			case "<=":
+				return order -> l.applyAsDouble(order) <= r.applyAsDouble(order);
+			case ">":
+				return order -> l.applyAsDouble(order) > r.applyAsDouble(order);
+			default:
+				return order -> l.applyAsDouble(order) >= r.applyAsDouble(order);
+			}
+		}
+
+		Function<Order, Object> l = left.getValue();
+		Function<Order, Object> r = right.getValue();
+		switch (operator) {
+		case "==":
+			return order -> Objects.equals(l.apply(order), r.apply(order));
+		case "!=":
+			return order -> !Objects.equals(l.apply(order), r.apply(order));
+		default:
+			throw error("Cannot compare " + left.getType().name().toLowerCase() + " by " + operator);
+		}
+	}
+
+	private Operand operand() {
+		String token = next();
+		if (Character.isDigit(token.charAt(0))) {
+			double value = Double.parseDouble(token);
+			return Operand.number(order -> value);
+		}
+		if (token.startsWith("'")) {
+			String value = token.substring(1, token.length() - 1);
+			return Operand.string(order -> value);
+		}
+		if (token.equals("true") || token.equals("false")) {
+			boolean value = Boolean.parseBoolean(token);
+			return Operand.bool(order -> value);
+		}
+		Operand variable = VARIABLES.get(token);
+		if (variable != null)
+			return variable;
+		ToDoubleFunction<Order> numberVariable = numberVariables.get(token);
+		if (numberVariable == null)
+			throw error("Unknown variable '" + token + "'");
+		return Operand.number(numberVariable);
+	}
+
+	private boolean accept(String token) {
+		if (!token.equals(peek()))
+			return false;
+		position++;
+		return true;
+	}
+
+	private void expect(String token) {
+		if (!accept(token))
+			throw error("Expected '" + token + "'");
+	}
+
+	private String next() {
+		if (position >= tokens.size())
+			throw error("Unexpected end");
+		return tokens.get(position++);
+	}
+
+	private String peek() {
+		return position < tokens.size() ? tokens.get(position) : null;
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " in condition: " + expression);
+	}
+
+	private static String userAttribute(Order order, Function<User, String> attribute) {
+		return order.getUser() == null ? null : attribute.apply(order.getUser());
+	}
+
+	private enum Type {
+		NUMBER, STRING, BOOLEAN
+	}
+
+	/* A compiled operand, a number, a string or a boolean function of the order */
+	@Getter
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	private static class Operand {
+
+		private final Type type;
+		private final ToDoubleFunction<Order> number;
+		private final Function<Order, Object> value;
+		private final Predicate<Order> bool;
+
+		static Operand number(ToDoubleFunction<Order> number) {
+			return new Operand(Type.NUMBER, number, null, null);
+		}
+
+		static Operand string(Function<Order, Object> value) {
+			return new Operand(Type.STRING, null, value, null);
+		}
+
+		static Operand bool(Predicate<Order> bool) {
+			return new Operand(Type.BOOLEAN, null, bool::test, bool);
+		}
+	}
+}
@@ -1,13 +0,0 @@
-INSERT INTO roles(name) VALUES('ROLE_USER');
-INSERT INTO roles(name) VALUES('ROLE_ADMIN');
-
-INSERT INTO products (name, price, available, image_url, description) 
-VALUES 
-	( 'TV Set', 300.00, true, 'http://placehold.it/200x100', ''),
-	('LabTop', 200.00, false, 'http://placehold.it/200x100', ''),
-	('Sofa', 100.00, true, 'http://placehold.it/200x100', ''),
-	('Icecream', 5.00, true, 'http://placehold.it/200x100', ''),
-	('Mobile', 150.00, true, 'http://placehold.it/200x100', ''),
-	('Phone', 100.00, false, 'http://placehold.it/200x100', ''),
-	('Watch', 30.00, true, 'http://placehold.it/200x100', '');
-	
\ No newline at end of file
@@ -0,0 +1,74 @@
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE order_items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE roles (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+	name VARCHAR(60),
+	PRIMARY KEY (id),
+	CONSTRAINT uk_roles_name UNIQUE (name)
+);
+
+CREATE TABLE users (
+	id BIGINT NOT NULL,
+	name VARCHAR(40),
+	email VARCHAR(40),
+	password VARCHAR(100),
+	PRIMARY KEY (id),
+	CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+	user_id BIGINT NOT NULL,
+	role_id BIGINT NOT NULL,
+	PRIMARY KEY (user_id, role_id),
+	CONSTRAINT fk_user_roles_user_id FOREIGN KEY (user_id) REFERENCES users (id),
+	CONSTRAINT fk_user_roles_role_id FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE products (
+	id BIGINT NOT NULL,
+	name VARCHAR(255) NOT NULL,
+	price_in_cents BIGINT NOT NULL,
+	available BOOLEAN NOT NULL,
+	stock INTEGER,
+	image_url VARCHAR(255),
+	description VARCHAR(255),
+	created_date TIMESTAMP,
+	updated_date TIMESTAMP,
+	PRIMARY KEY (id)
+);
+
+CREATE TABLE orders (
+	id BIGINT NOT NULL,
+	status VARCHAR(255),
+	subtotal_in_cents BIGINT NOT NULL,
+	item_count INTEGER NOT NULL,
+	session_id VARCHAR(255),
+	user_id BIGINT,
+	created_date TIMESTAMP,
+	updated_date TIMESTAMP,
+	PRIMARY KEY (id),
+	CONSTRAINT fk_orders_user_id FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE order_items (
+	id BIGINT NOT NULL,
+	quantity INTEGER NOT NULL,
+	unit_price_in_cents BIGINT NOT NULL,
+	order_id BIGINT NOT NULL,
+	product_id BIGINT,
+	PRIMARY KEY (id),
+	CONSTRAINT fk_order_items_order_id FOREIGN KEY (order_id) REFERENCES orders (id),
+	CONSTRAINT fk_order_items_product_id FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+-- Orders listing, newest first, of all users and of a user (also serves the user's orders lookups)
+CREATE INDEX idx_orders_created_date_id ON orders (created_date, id);
+CREATE INDEX idx_orders_user_id_created_date_id ON orders (user_id, created_date, id);
+-- Orders filtered by status
+CREATE INDEX idx_orders_status ON orders (status);
+-- Items of an order, and orders of a product
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
+CREATE INDEX idx_order_items_product_id ON order_items (product_id);
@@ -0,0 +1,14 @@
+INSERT INTO roles(name) VALUES('ROLE_USER');
+INSERT INTO roles(name) VALUES('ROLE_ADMIN');
+
+INSERT INTO products (id, name, price_in_cents, available, stock, image_url, description) 
+VALUES 
+	(1, 'TV Set', 30000, true, 100, 'http://placehold.it/200x100', ''),
+	(2, 'LabTop', 20000, false, 0, 'http://placehold.it/200x100', ''),
+	(3, 'Sofa', 10000, true, 100, 'http://placehold.it/200x100', ''),
+	(4, 'Icecream', 500, true, 1000, 'http://placehold.it/200x100', ''),
+	(5, 'Mobile', 15000, true, 100, 'http://placehold.it/200x100', ''),
+	(6, 'Phone', 10000, false, 0, 'http://placehold.it/200x100', ''),
+	(7, 'Watch', 3000, true, 100, 'http://placehold.it/200x100', '');
+
+ALTER SEQUENCE products_seq RESTART WITH 8;
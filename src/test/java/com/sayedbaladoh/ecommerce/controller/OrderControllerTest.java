@@ -19,12 +19,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import org.junit.Before;
@@ -34,6 +36,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
@@ -50,7 +53,9 @@ import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
 import com.sayedbaladoh.ecommerce.enums.OrderStatus;
 import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
 import com.sayedbaladoh.ecommerce.exception.ValidationViolationException;
+import com.sayedbaladoh.ecommerce.service.CheckoutService;
 import com.sayedbaladoh.ecommerce.service.OrderService;
+import com.sayedbaladoh.ecommerce.service.impl.IdempotencyServiceImpl;
 import com.sayedbaladoh.ecommerce.validations.ValidationViolation;
 import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
 
@@ -66,6 +71,7 @@ import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
 		value = OrderController.class,
 		secure = false)
 @EnableSpringDataWebSupport
+@Import(IdempotencyServiceImpl.class)
 public class OrderControllerTest {
 
 	@Autowired
@@ -75,6 +81,9 @@ public class OrderControllerTest {
 
 	@MockBean
 	private OrderService orderService;
+
+	@MockBean
+	private CheckoutService checkoutService;
 	
 	@Before
 	public void setUp() {
@@ -236,7 +245,7 @@ public class OrderControllerTest {
 	/**
 	 * Verify checkout a valid Order
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -270,10 +279,124 @@ public class OrderControllerTest {
 		Mockito.verifyNoMoreInteractions(orderService);
 	}
 	
+	/**
+	 * Verify a retried checkout with the same Idempotency-Key replays the
+	 * original checkout session
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenIdempotencyKey_whenCheckoutOrderTwice_thenCheckoutSessionIsCreatedOnce() throws Exception {
+		// Data preparation
+		Long orderId = 2l;
+		CheckoutSession checkoutSession = mockCheckoutSession(orderId, "125489515dd55ds5ds5fADASD", "unpaid", "https://checkout.stripe.com/pay/cs_test_123454785199");
+
+		given(orderService.createCheckoutSession(orderId))
+				.willReturn(checkoutSession);
+
+		// API call and Verification
+		mvc.perform(post("/orders/{orderId}/checkout/sessions", orderId)
+				.header("Idempotency-Key", "checkout-2")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("Idempotent-Replayed"));
+		mvc.perform(post("/orders/{orderId}/checkout/sessions", orderId)
+				.header("Idempotency-Key", "checkout-2")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Idempotent-Replayed", "true"))
+				.andExpect(jsonPath("$.sessionId", is(checkoutSession.getSessionId())));
+
+		verify(orderService, times(1)).createCheckoutSession(orderId);
+		Mockito.verifyNoMoreInteractions(orderService);
+	}
+
+	/**
+	 * Verify an asynchronous checkout is accepted with its poll URL
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrderAsync(java.lang.Long, java.lang.String)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenValidOrder_whenCheckoutOrderAsync_thenReturn202WithPollUrl() throws Exception {
+		// API call and Verification
+		mvc.perform(post("/orders/{orderId}/checkout/sessions", 1l)
+				.param("async", "true")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Location", containsString("/orders/1/checkout/sessions/current")))
+				.andExpect(jsonPath("$.success", is(true)));
+
+		verify(checkoutService, times(1)).submitCheckoutSession(1l);
+		Mockito.verifyNoMoreInteractions(checkoutService);
+		Mockito.verifyNoMoreInteractions(orderService);
+	}
+
+	/**
+	 * Verify a retried asynchronous checkout with the same Idempotency-Key
+	 * replays its poll URL without submitting the checkout again
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrderAsync(java.lang.Long, java.lang.String)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenIdempotencyKey_whenCheckoutOrderAsyncTwice_thenCheckoutIsSubmittedOnce() throws Exception {
+		// API call and Verification
+		mvc.perform(post("/orders/{orderId}/checkout/sessions", 3l)
+				.param("async", "true")
+				.header("Idempotency-Key", "checkout-async-3")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isAccepted())
+				.andExpect(header().doesNotExist("Idempotent-Replayed"));
+		mvc.perform(post("/orders/{orderId}/checkout/sessions", 3l)
+				.param("async", "true")
+				.header("Idempotency-Key", "checkout-async-3")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Idempotent-Replayed", "true"))
+				.andExpect(header().string("Location", containsString("/orders/3/checkout/sessions/current")));
+
+		verify(checkoutService, times(1)).submitCheckoutSession(3l);
+		Mockito.verifyNoMoreInteractions(checkoutService);
+	}
+
+	/**
+	 * Verify polling a checkout in progress and a completed checkout
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#getCheckoutSession(java.lang.Long)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenAsyncCheckout_whenGetCheckoutSession_thenReturn202UntilCompleted() throws Exception {
+		// Data preparation
+		Long orderId = 1l;
+		CheckoutSession checkoutSession = mockCheckoutSession(orderId, "125489515dd55ds5ds5fADASD", "unpaid", "https://checkout.stripe.com/pay/cs_test_123454785199");
+
+		given(checkoutService.getCheckoutSession(orderId))
+				.willReturn(Optional.empty())
+				.willReturn(Optional.of(checkoutSession));
+
+		// API call and Verification
+		mvc.perform(get("/orders/{orderId}/checkout/sessions/current", orderId))
+				.andExpect(status().isAccepted());
+		mvc.perform(get("/orders/{orderId}/checkout/sessions/current", orderId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.orderId", is(orderId.intValue())))
+				.andExpect(jsonPath("$.sessionId", is(checkoutSession.getSessionId())));
+
+		verify(checkoutService, times(2)).getCheckoutSession(orderId);
+		Mockito.verifyNoMoreInteractions(checkoutService);
+	}
+
 	/**
 	 * Verify checkout an invalid order Id
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */	
@@ -293,7 +416,7 @@ public class OrderControllerTest {
 	/**
 	 * Verify checkout an order with basket item is not available
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */	
@@ -324,7 +447,7 @@ public class OrderControllerTest {
 	/**
 	 * Verify checkout an order with user fraud, user's order basket has more than 1500 money value
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */	
@@ -355,7 +478,7 @@ public class OrderControllerTest {
 	/**
 	 * Verify checkout an order with total basket money less than 100
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -24,6 +24,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.junit.Before;
@@ -34,6 +36,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 import org.springframework.http.MediaType;
@@ -42,12 +45,15 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sayedbaladoh.ecommerce.dto.common.FacetedPage;
 import com.sayedbaladoh.ecommerce.dto.product.ProductRequestDto;
 import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
 import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
 import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.service.ProductSearchService;
 import com.sayedbaladoh.ecommerce.service.ProductService;
 import com.sayedbaladoh.ecommerce.util.JsonUtil;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
 
 
 /**
@@ -72,10 +78,70 @@ public class ProductControllerTest {
 	@MockBean
 	private ProductService productService;
 	
+	@MockBean
+	private ProductSearchService productSearchService;
 
 	@Before
 	public void setUp() {
-		reset(productService);
+		reset(productService, productSearchService);
+	}
+
+	/**
+	 * Validate search products with query and filters
+	 * 
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.ProductController#searchProducts(java.lang.String, java.lang.Boolean, java.lang.Double, java.lang.Double, org.springframework.data.domain.Pageable)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenQueryAndFilters_whenSearchProducts_thenReturnMatchingProductPage() throws Exception {
+		// Data preparation
+		Product product = mockProduct(1l, "Mobile", 500, true);
+		given(productSearchService.search(eq("mob"), eq(true), eq(100d), eq(600d), any(Pageable.class)))
+				.willReturn(new PageImpl<ProductResponseDto>(List.of(mockProductResponseDto(product))));
+
+		//API call and Verification
+		mvc.perform(get("/products/search?q=mob&available=true&minPrice=100&maxPrice=600&page=0&size=15")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].name", is(product.getName())))
+				.andExpect(jsonPath("$.totalElements", is(1)));
+
+		verify(productSearchService, times(1)).search(eq("mob"), eq(true), eq(100d), eq(600d), any(Pageable.class));
+		Mockito.verifyNoMoreInteractions(productSearchService);
+		Mockito.verifyNoMoreInteractions(productService);
+	}
+
+	/**
+	 * Validate get products with facet filters and counts
+	 * 
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.ProductController#getFacetedProducts(java.lang.Boolean, java.util.List, org.springframework.data.domain.Pageable)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenFacetFilters_whenGetFacetedProducts_thenReturnProductPageWithFacets() throws Exception {
+		// Data preparation
+		Product product = mockProduct(1l, "Mobile", 500, true);
+		Map<String, Set<String>> filters = Map.of(ProductSearchService.FACET_AVAILABLE, Set.of("true"),
+				ProductSearchService.FACET_PRICE, Set.of("100-500", "500-"));
+		given(productSearchService.browse(eq(filters), any(Pageable.class)))
+				.willReturn(new FacetedPage<ProductResponseDto>(List.of(mockProductResponseDto(product)),
+						PageRequest.of(0, 15), 1, Map.of(ProductSearchService.FACET_PRICE, Map.of("500-", 1l))));
+
+		//API call and Verification
+		mvc.perform(get("/products?facets=true&available=true&price=100-500&price=500-&page=0&size=15")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].name", is(product.getName())))
+				.andExpect(jsonPath("$.totalElements", is(1)))
+				.andExpect(jsonPath("$.facets.price.500-", is(1)));
+
+		verify(productSearchService, times(1)).browse(eq(filters), any(Pageable.class));
+		Mockito.verifyNoMoreInteractions(productSearchService);
+		Mockito.verifyNoMoreInteractions(productService);
 	}
 
 	/**
@@ -184,7 +250,7 @@ public class ProductControllerTest {
 				.andExpect(jsonPath("$.price").exists())
 				.andExpect(jsonPath("$.id").value(product.getId()))
 				.andExpect(jsonPath("$.name").value(product.getName()))
-				.andExpect(jsonPath("$.price").value(product.getPrice()))
+				.andExpect(jsonPath("$.price").value(MoneyUtil.toUnits(product.getPriceInCents())))
 				.andDo(print())
 				.andReturn();
 
@@ -280,7 +346,7 @@ public class ProductControllerTest {
 				.andExpect(jsonPath("$.price").exists())
 				.andExpect(jsonPath("$.id").value(product.getId()))
 				.andExpect(jsonPath("$.name").value(product.getName()))
-				.andExpect(jsonPath("$.price").value(product.getPrice()))
+				.andExpect(jsonPath("$.price").value(MoneyUtil.toUnits(product.getPriceInCents())))
 				.andDo(print());
 		
 		verify(productService, times(1)).updateProduct(eq(product.getId()), any(ProductRequestDto.class));
@@ -316,12 +382,12 @@ public class ProductControllerTest {
 	
 	private Product mockProduct(Long id, String name, double price, boolean available) {
 
-		return new Product(id, name, price, available, "", "", new Date(), new Date());
+		return new Product(id, name, MoneyUtil.toCents(price), available, null, "", "", new Date(), new Date());
 	}
 	
 	private ProductRequestDto mockProductRequestDto(String name, double price, boolean available) {
 
-		return new ProductRequestDto(name, price, available, "", "");
+		return new ProductRequestDto(name, price, available, null, "", "");
 	}
 	
 	private ProductResponseDto mockProductResponseDto(Product product) {
@@ -329,7 +395,7 @@ public class ProductControllerTest {
 		ProductResponseDto productResponse = new ProductResponseDto();
 		productResponse.setId(product.getId());
 		productResponse.setName(product.getName());
-		productResponse.setPrice(product.getPrice());
+		productResponse.setPrice(MoneyUtil.toUnits(product.getPriceInCents()));
 		productResponse.setAvailable(product.isAvailable());
 		productResponse.setDescription(product.getDescription());
 		productResponse.setImageURL(product.getImageURL());
@@ -343,7 +409,7 @@ public class ProductControllerTest {
 		assertNotNull(productDto.getName());
 	    assertEquals(productDto.getName(), product.getName());
 	    assertNotNull(productDto.getPrice());
-	    assertThat(productDto.getPrice()).isEqualTo(product.getPrice());
+	    assertThat(productDto.getPrice()).isEqualTo(MoneyUtil.toUnits(product.getPriceInCents()));
 	    assertEquals(productDto.getDescription(), product.getDescription());
 	    assertEquals(productDto.getImageURL(), product.getImageURL());
 	  }
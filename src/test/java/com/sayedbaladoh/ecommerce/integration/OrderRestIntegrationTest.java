@@ -10,8 +10,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -29,6 +31,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -50,7 +54,10 @@ import com.sayedbaladoh.ecommerce.model.Product;
 import com.sayedbaladoh.ecommerce.model.User;
 import com.sayedbaladoh.ecommerce.repository.OrderItemRepository;
 import com.sayedbaladoh.ecommerce.repository.OrderRepository;
+import com.sayedbaladoh.ecommerce.repository.ProductRepository;
 import com.sayedbaladoh.ecommerce.repository.UserRepository;
+import com.sayedbaladoh.ecommerce.service.InventoryService;
+import com.sayedbaladoh.ecommerce.service.impl.SimulatedPaymentService;
 import com.sayedbaladoh.ecommerce.util.JsonUtil;
 
 /**
@@ -66,6 +73,8 @@ import com.sayedbaladoh.ecommerce.util.JsonUtil;
 		webEnvironment = SpringBootTest.WebEnvironment.MOCK,
 		classes = EcommerceApplication.class)
 @AutoConfigureMockMvc
+@ActiveProfiles(SimulatedPaymentService.PROFILE)
+@TestPropertySource(properties = { "app.payment.simulated.latencyInMs=0", "spring.datasource.generate-unique-name=true" })
 public class OrderRestIntegrationTest {
 
 	private final String API_URL = "/orders";
@@ -82,11 +91,17 @@ public class OrderRestIntegrationTest {
 	@Autowired
 	private OrderItemRepository orderItemRepository;
 	
+	@Autowired
+	private ProductRepository productRepository;
+	
 	@Autowired
 	private UserRepository userRepository;
 	
 	@Autowired
 	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private InventoryService inventoryService;
 	
 	private User user;
 
@@ -148,6 +163,66 @@ public class OrderRestIntegrationTest {
 		assertEquals("application/json;charset=UTF-8", mvcResult.getResponse().getContentType());
 	}
 	
+	/**
+	 * Validate scrolling the orders, newest first, by following the slices cursors
+	 * 
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#scrollOrders(java.lang.String, int)}.
+	 * 
+	 * @throws Exception
+	 */
+	@WithMockUser(username="test-user",authorities={"USER"})
+	@Test
+	public void givenOrders_whenScrollOrders_thenReturnSlicesFollowingCursor()
+			throws Exception {
+
+		// Data preparation
+		Order order1 = createOrder(user);
+		Order order2 = createOrder(user);
+		Order order3 = createOrder(user);
+
+		// API call and Verification
+		MvcResult mvcResult = mvc.perform(get(API_URL+"/scroll?size=2")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.size", is(2)))
+				.andExpect(jsonPath("$.hasNext", is(true)))
+				.andExpect(jsonPath("$.nextCursor").isNotEmpty())
+				.andExpect(jsonPath("$.totalElements").doesNotExist())
+				.andExpect(jsonPath("$.content[0].id").value(order3.getId()))
+				.andExpect(jsonPath("$.content[1].id").value(order2.getId()))
+				.andReturn();
+
+		String nextCursor = new JacksonJsonParser().parseMap(mvcResult.getResponse().getContentAsString())
+				.get("nextCursor").toString();
+
+		mvc.perform(get(API_URL+"/scroll?size=2&cursor=" + nextCursor)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.size", is(1)))
+				.andExpect(jsonPath("$.hasNext", is(false)))
+				.andExpect(jsonPath("$.nextCursor").doesNotExist())
+				.andExpect(jsonPath("$.content[0].id").value(order1.getId()));
+	}
+
+	/**
+	 * Validate scrolling the orders with a malformed cursor
+	 * 
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#scrollOrders(java.lang.String, int)}.
+	 * 
+	 * @throws Exception
+	 */
+	@WithMockUser(username="test-user",authorities={"USER"})
+	@Test
+	public void givenInvalidCursor_whenScrollOrders_thenReturn400BadRequest()
+			throws Exception {
+
+		// API call and Verification
+		mvc.perform(get(API_URL+"/scroll?cursor=invalid")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message", is("Invalid cursor.")));
+	}
+
 	/**
 	 * Validate get all orders with empty list
 	 * 
@@ -256,6 +331,52 @@ public class OrderRestIntegrationTest {
 		assertEquals("application/json;charset=UTF-8", mvcResult.getResponse().getContentType());
 	}
 
+	/**
+	 * Verify the cart items are ordered and the cart is emptied
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.CartController#placeOrder(com.sayedbaladoh.ecommerce.security.UserPrincipal)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenCartItems_whenPlaceCartOrder_thenOrderCreatedAndCartEmptied() throws IOException, Exception {
+		// Data preparation
+		String accessToken = obtainAccessToken();
+		OrderItemDto orderItemDto = mockOrderDto().getOrderItems().get(0);
+		mvc.perform(post("/cart/items")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(JsonUtil.toJson(orderItemDto))
+				.header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isOk());
+		mvc.perform(put("/cart/items/{productId}", 1l)
+				.param("quantity", "2")
+				.header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items", hasSize(1)))
+				.andExpect(jsonPath("$.items[0].quantity", is(2)));
+
+		// API call and Verification
+		mvc.perform(post("/cart/orders")
+				.header("Idempotency-Key", "cart-order-1")
+				.header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isCreated())
+				.andExpect(header().string("Location", containsString("/orders/")))
+				.andExpect(jsonPath("$.message", containsString("Order has been saved with id:")));
+		mvc.perform(post("/cart/orders")
+				.header("Idempotency-Key", "cart-order-1")
+				.header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isCreated())
+				.andExpect(header().string("Idempotent-Replayed", "true"));
+		mvc.perform(get("/cart")
+				.header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items", hasSize(0)));
+
+		List<Order> orders = orderRepository.findAll();
+		assertEquals(1, orders.size());
+		assertEquals(2, orderItemRepository.findAll().get(0).getQuantity().intValue());
+	}
+
 	/**
 	 * Verify add an invalid Order with authorized user
 	 *
@@ -336,7 +457,7 @@ public class OrderRestIntegrationTest {
 	/**
 	 * Verify checkout a valid Order
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -366,10 +487,66 @@ public class OrderRestIntegrationTest {
 		assertEquals("application/json;charset=UTF-8", mvcResult.getResponse().getContentType());
 	}
 	
+	/**
+	 * Verify an order checked out twice reserves its stock once
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
+	 * 
+	 * @throws Exception
+	 */
+	@WithMockUser(username="test", authorities={"USER"})
+	@Test
+	public void givenCheckedOutOrder_whenCheckoutOrderAgain_thenReturn409ConflictAndStockIsReservedOnce() throws Exception {
+		// Data preparation
+		Order order = createOrder(user);
+		createOrderItem(order, 3l, 2);
+		int stock = getStock(3l);
+
+		// API call and Verification
+		mvc.perform(post(API_URL + "/{orderId}/checkout/sessions", order.getId())
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		mvc.perform(post(API_URL + "/{orderId}/checkout/sessions", order.getId())
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.message", is("Order with id: " + order.getId() + " is already checked out.")));
+
+		assertEquals(stock - 2, getStock(3l));
+	}
+
+	/**
+	 * Verify the payment confirmation marks the order paid and keeps its stock
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#confirmPayment(java.lang.Long)}.
+	 * 
+	 * @throws Exception
+	 */
+	@WithMockUser(username="test", authorities={"USER"})
+	@Test
+	public void givenCheckedOutOrder_whenConfirmPayment_thenOrderIsPaidAndStockIsCommitted() throws Exception {
+		// Data preparation
+		Order order = createOrder(user);
+		createOrderItem(order, 3l, 2);
+		int stock = getStock(3l);
+		mvc.perform(post(API_URL + "/{orderId}/checkout/sessions", order.getId())
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+
+		// API call and Verification
+		mvc.perform(post(API_URL + "/{orderId}/payment", order.getId())
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status", is(OrderStatus.PAID.name())));
+
+		assertEquals(OrderStatus.PAID, orderRepository.findById(order.getId()).get().getStatus());
+		assertThat(inventoryService.commit(order.getId())).isFalse();
+		assertEquals(stock - 2, getStock(3l));
+	}
+
 	/**
 	 * Verify checkout an invalid order Id
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -386,7 +563,7 @@ public class OrderRestIntegrationTest {
 	/**
 	 * Verify checkout an order with basket item is not available
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -416,7 +593,7 @@ public class OrderRestIntegrationTest {
 	/**
 	 * Verify checkout an order with user fraud, user's order basket has more than 1500 money value
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -445,7 +622,7 @@ public class OrderRestIntegrationTest {
 	/**
 	 * Verify checkout an order with total basket money less than 100
 	 *
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -474,7 +651,7 @@ public class OrderRestIntegrationTest {
 	/**
 	 * Verify checkout an order with  basket item is not available and user fraud, user's order basket has more than 1500 money value
 	 * 
-	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long)}.
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.OrderController#checkoutOrder(java.lang.Long, java.lang.String)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -525,9 +702,20 @@ public class OrderRestIntegrationTest {
 		item.setOrder(order);
 		item.setProduct(new Product(ProductId));
 		item.setQuantity(quantity);
-		return orderItemRepository.save(item);
+		item.setUnitPriceInCents(productRepository.findById(ProductId).get().getPriceInCents());
+		item = orderItemRepository.save(item);
+
+		order.setSubtotalInCents(order.getSubtotalInCents() + item.getTotalPriceInCents());
+		order.setItemCount(order.getItemCount() + 1);
+		orderRepository.save(order);
+		return item;
 	}
 	
+	private int getStock(Long productId) {
+		inventoryService.flush();
+		return productRepository.findById(productId).get().getStock();
+	}
+
 	private User createUser(String name, String email, String password) {
 		User user = new User(name, email, passwordEncoder.encode(password));		
 		return userRepository.save(user);
@@ -3,6 +3,7 @@ package com.sayedbaladoh.ecommerce.integration;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -26,6 +27,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -37,6 +39,8 @@ import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
 import com.sayedbaladoh.ecommerce.model.Product;
 import com.sayedbaladoh.ecommerce.repository.ProductRepository;
 import com.sayedbaladoh.ecommerce.util.JsonUtil;
+import com.sayedbaladoh.ecommerce.util.KeysetCursor;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
 
 /**
  * Product APIs Integration tests
@@ -51,6 +55,7 @@ import com.sayedbaladoh.ecommerce.util.JsonUtil;
 		webEnvironment = SpringBootTest.WebEnvironment.MOCK,
 		classes = EcommerceApplication.class)
 @AutoConfigureMockMvc
+@TestPropertySource(properties = { "spring.datasource.generate-unique-name=true", "app.catalog.cacheTtlInMs=0" })
 public class ProductRestIntegrationTest {
 
 	private final String API_URL = "/products";
@@ -102,6 +107,72 @@ public class ProductRestIntegrationTest {
 		assertEquals("application/json;charset=UTF-8", mvcResult.getResponse().getContentType());
 	}
 	
+	/**
+	 * Validate the internal metrics are hidden from the customers
+	 * 
+	 * @throws Exception
+	 */
+	@WithMockUser(username="test-user",authorities={"USER"})
+	@Test
+	public void givenUser_whenGetMetrics_thenReturnStatus403() throws Exception {
+		// API call and Verification
+		mvc.perform(get("/actuator/metrics"))
+				.andExpect(status().isForbidden());
+	}
+
+	/**
+	 * Validate the internal metrics, e.g. of the catalog caches, are shown to the
+	 * admins
+	 * 
+	 * @throws Exception
+	 */
+	@WithMockUser(username="test-admin",authorities={"ROLE_ADMIN"})
+	@Test
+	public void givenAdmin_whenGetMetrics_thenReturnMetricsWithStatus200() throws Exception {
+		// API call and Verification
+		mvc.perform(get("/actuator/metrics"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.names", hasItem("cache.gets")));
+	}
+
+	/**
+	 * Validate scrolling the products by following the slices cursors
+	 * 
+	 * Test method for {@link com.sayedbaladoh.ecommerce.controller.ProductController#scrollProducts(java.lang.String, int)}.
+	 * 
+	 * @throws Exception
+	 */
+	@WithMockUser(username="test-user",authorities={"USER"})
+	@Test
+	public void givenProducts_whenScrollProducts_thenReturnSlicesFollowingCursor()
+			throws Exception {
+		// Data preparation
+		Product product1 = createProduct("Mobile", 500, true);
+		Product product2 = createProduct("TV", 150, true);
+		Product product3 = createProduct("Watch", 30, true);
+		String cursor = KeysetCursor.encode(product1.getId() - 1);
+
+		// API call and Verification
+		MvcResult mvcResult = mvc.perform(get(API_URL+"/scroll?size=2&cursor=" + cursor)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.size", is(2)))
+				.andExpect(jsonPath("$.hasNext", is(true)))
+				.andExpect(jsonPath("$.content[0].name", is(product1.getName())))
+				.andExpect(jsonPath("$.content[1].name", is(product2.getName())))
+				.andReturn();
+
+		String nextCursor = objectMapper.readTree(mvcResult.getResponse().getContentAsString()).get("nextCursor")
+				.asText();
+
+		mvc.perform(get(API_URL+"/scroll?size=2&cursor=" + nextCursor)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.size", is(1)))
+				.andExpect(jsonPath("$.hasNext", is(false)))
+				.andExpect(jsonPath("$.content[0].name", is(product3.getName())));
+	}
+
 	/**
 	 * Validate get all products with empty list
 	 * 
@@ -153,7 +224,7 @@ public class ProductRestIntegrationTest {
 						.andExpect(jsonPath("$.price").exists())
 						.andExpect(jsonPath("$.id").value(product.getId()))
 						.andExpect(jsonPath("$.name").value(product.getName()))
-						.andExpect(jsonPath("$.price").value(product.getPrice()))
+						.andExpect(jsonPath("$.price").value(MoneyUtil.toUnits(product.getPriceInCents())))
 						.andDo(print())
 						.andReturn();
 
@@ -276,21 +347,20 @@ public class ProductRestIntegrationTest {
 		// Data preparation
 		Product product = createProduct("Mobile", 500, true);
 
-		product.setName("ABC Mobile");
-		product.setPrice(350);
+		ProductRequestDto productRequestDto = mockProductRequestDto("ABC Mobile", 350, true);
 
 		// Method call and Verification
 		mvc.perform(put(API_URL + "/" + product.getId())
 				.contentType(MediaType.APPLICATION_JSON)
-				.content(JsonUtil.toJson(product)))
+				.content(JsonUtil.toJson(productRequestDto)))
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$.id").exists())
 				.andExpect(jsonPath("$.name").exists())
 				.andExpect(jsonPath("$.price").exists())
 				.andExpect(jsonPath("$.id").isNotEmpty())
 				.andExpect(jsonPath("$.id").value(product.getId()))
-				.andExpect(jsonPath("$.name", is(product.getName())))
-				.andExpect(jsonPath("$.price", is(product.getPrice())));
+				.andExpect(jsonPath("$.name", is(productRequestDto.getName())))
+				.andExpect(jsonPath("$.price", is(productRequestDto.getPrice())));
 	}
 
 	/**
@@ -306,7 +376,7 @@ public class ProductRestIntegrationTest {
 		Product product = createProduct("Mobile", 500, true);
 
 		product.setName("ABC Mobile");
-		product.setPrice(350);
+		product.setPriceInCents(MoneyUtil.toCents(350));
 
 		// Method call and Verification
 		mvc.perform(put(API_URL + "/" + INVALID_ID)
@@ -324,12 +394,12 @@ public class ProductRestIntegrationTest {
 	 * @return
 	 */
 	private Product createProduct(String name, double price, boolean available) {
-		Product product = new Product(null, name, price, available, "", "", new Date(), new Date());
+		Product product = new Product(null, name, MoneyUtil.toCents(price), available, null, "", "", new Date(), new Date());
 		return productRepository.saveAndFlush(product);
 	}
 	
 	private ProductRequestDto mockProductRequestDto(String name, double price, boolean available) {
-		return new ProductRequestDto(name, price, available, "", "");
+		return new ProductRequestDto(name, price, available, null, "", "");
 	}
 	
 	private void assertProduct(ProductResponseDto productDto, Product product) {
@@ -339,7 +409,7 @@ public class ProductRestIntegrationTest {
 		assertNotNull(productDto.getName());
 	    assertEquals(productDto.getName(), product.getName());
 	    assertNotNull(productDto.getPrice());
-	    assertThat(productDto.getPrice()).isEqualTo(product.getPrice());
+	    assertThat(productDto.getPrice()).isEqualTo(MoneyUtil.toUnits(product.getPriceInCents()));
 	    assertEquals(productDto.getDescription(), product.getDescription());
 	    assertEquals(productDto.getImageURL(), product.getImageURL());
 	  }
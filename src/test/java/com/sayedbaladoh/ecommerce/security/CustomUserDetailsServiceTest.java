@@ -0,0 +1,93 @@
+package com.sayedbaladoh.ecommerce.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.sayedbaladoh.ecommerce.model.User;
+import com.sayedbaladoh.ecommerce.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Custom user details service unit tests
+ *
+ * Test the authenticated user principals cache
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CustomUserDetailsServiceTest {
+
+	@Mock
+	private UserRepository userRepository;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private CustomUserDetailsService customUserDetailsService;
+
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		customUserDetailsService = new CustomUserDetailsService(userRepository, meterRegistry, 60000, 100);
+	}
+
+	/**
+	 * Validate loading a user twice hits the database once
+	 */
+	@Test
+	public void givenUserId_whenLoadUserByIdTwice_thenUserIsLoadedOnce() {
+		// Data preparation
+		when(userRepository.findWithRolesById(3l)).thenReturn(Optional.of(mockUser(3l)));
+
+		// Method call
+		UserDetails first = customUserDetailsService.loadUserById(3l);
+		UserDetails second = customUserDetailsService.loadUserById(3l);
+
+		// Verification
+		assertThat(second).isSameAs(first);
+		assertThat(first.getUsername()).isEqualTo("test@test.com");
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "userPrincipals").tag("result", "hit")
+				.functionCounter().count()).isEqualTo(1.0);
+		verify(userRepository, times(1)).findWithRolesById(3l);
+		Mockito.verifyNoMoreInteractions(userRepository);
+	}
+
+	/**
+	 * Validate an evicted user is loaded again from the database
+	 */
+	@Test
+	public void givenCachedUser_whenEvictUser_thenUserIsLoadedAgain() {
+		// Data preparation
+		when(userRepository.findWithRolesById(3l)).thenReturn(Optional.of(mockUser(3l)));
+		customUserDetailsService.loadUserById(3l);
+
+		// Method call
+		customUserDetailsService.evictUser(3l);
+		customUserDetailsService.loadUserById(3l);
+
+		// Verification
+		verify(userRepository, times(2)).findWithRolesById(3l);
+		Mockito.verifyNoMoreInteractions(userRepository);
+	}
+
+	private User mockUser(Long id) {
+		User user = new User("test", "test@test.com", "12345789");
+		user.setId(id);
+		user.setRoles(new HashSet<>());
+		return user;
+	}
+}
@@ -0,0 +1,83 @@
+package com.sayedbaladoh.ecommerce.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * JWT token provider unit tests
+ *
+ * Test the token verification and the verified tokens cache
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class JwtTokenProviderTest {
+
+	private JwtTokenProvider tokenProvider;
+
+	@Before
+	public void setUp() {
+		tokenProvider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "JWTSuperSecretKey");
+		ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 60000);
+		ReflectionTestUtils.setField(tokenProvider, "jwtCacheMaximumSize", 100L);
+		tokenProvider.init();
+	}
+
+	/**
+	 * Validate a valid token returns its user id, from the cache the second time
+	 * without parsing it again
+	 */
+	@Test
+	public void givenValidToken_whenGetUserIdFromValidTokenTwice_thenReturnUserIdFromCache() {
+		// Data preparation
+		String token = generateToken(5l);
+		JwtTokenProvider tokenProvider = spy(this.tokenProvider);
+
+		// Method call and Verification
+		assertThat(tokenProvider.getUserIdFromValidToken(token)).contains(5l);
+		assertThat(tokenProvider.getUserIdFromValidToken(token)).contains(5l);
+		assertThat(tokenProvider.getUserIdFromJWT(token)).isEqualTo(5l);
+		verify(tokenProvider, times(1)).parseToken(token);
+	}
+
+	/**
+	 * Validate a token with an invalid signature is rejected
+	 */
+	@Test
+	public void givenTamperedToken_whenGetUserIdFromValidToken_thenReturnEmpty() {
+		// Data preparation
+		String token = generateToken(5l);
+		tokenProvider.getUserIdFromValidToken(token);
+		String tamperedToken = token.substring(0, token.length() - 4) + "AAAA";
+
+		// Method call and Verification
+		assertThat(tokenProvider.getUserIdFromValidToken(tamperedToken)).isEmpty();
+		assertThat(tokenProvider.validateToken(tamperedToken)).isFalse();
+	}
+
+	/**
+	 * Validate an empty token is rejected
+	 */
+	@Test
+	public void givenEmptyToken_whenGetUserIdFromValidToken_thenReturnEmpty() {
+		assertThat(tokenProvider.getUserIdFromValidToken("")).isEmpty();
+		assertThat(tokenProvider.validateToken("")).isFalse();
+	}
+
+	private String generateToken(Long userId) {
+		UserPrincipal userPrincipal = new UserPrincipal(userId, "test", "test@test.com", "password",
+				Collections.emptyList());
+		return tokenProvider
+				.generateToken(new UsernamePasswordAuthenticationToken(userPrincipal, null, Collections.emptyList()));
+	}
+}
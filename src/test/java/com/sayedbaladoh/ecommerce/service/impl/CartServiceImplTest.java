@@ -0,0 +1,270 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.dto.cart.CartDto;
+import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
+import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
+import com.sayedbaladoh.ecommerce.dto.product.ProductDto;
+import com.sayedbaladoh.ecommerce.exception.BadRequestException;
+import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
+import com.sayedbaladoh.ecommerce.service.OrderService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cart service unit tests
+ *
+ * Test the cart items changes, the cart order and the carts snapshot
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class CartServiceImplTest {
+
+	private final Long USER_ID = 1l;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private OrderService orderService;
+
+	private CartServiceImpl cartService;
+
+	@Before
+	public void setUp() {
+		orderService = Mockito.mock(OrderService.class);
+		cartService = cartService(null);
+	}
+
+	/**
+	 * Validate the quantities of the same product are merged
+	 */
+	@Test
+	public void givenSameProductTwice_whenAddItem_thenQuantitiesAreMerged() {
+		// Method call
+		cartService.addItem(USER_ID, mockOrderItemDto(1l, 2));
+		cartService.addItem(USER_ID, mockOrderItemDto(2l, 1));
+		CartDto cart = cartService.addItem(USER_ID, mockOrderItemDto(1l, 3));
+
+		// Verification
+		assertThat(cart.getItems()).extracting(item -> item.getProduct().getId()).containsExactly(1l, 2l);
+		assertThat(cart.getItems()).extracting(OrderItemDto::getQuantity).containsExactly(5, 1);
+		assertThat(cartService.getCart(2l).getItems()).isEmpty();
+	}
+
+	/**
+	 * Validate an item quantity is updated and the last removed item empties the
+	 * cart
+	 */
+	@Test
+	public void givenCartItem_whenUpdateAndRemoveItem_thenCartIsChanged() {
+		// Data preparation
+		cartService.addItem(USER_ID, mockOrderItemDto(1l, 2));
+
+		// Method call
+		CartDto updatedCart = cartService.updateItem(USER_ID, 1l, 7);
+		CartDto removedCart = cartService.removeItem(USER_ID, 1l);
+
+		// Verification
+		assertThat(updatedCart.getItems()).extracting(OrderItemDto::getQuantity).containsExactly(7);
+		assertThat(removedCart.getItems()).isEmpty();
+		assertThat(cartService.getCart(USER_ID).getItems()).isEmpty();
+	}
+
+	/**
+	 * Validate updating a product not in the cart is rejected
+	 */
+	@Test(expected = ResourceNotFoundException.class)
+	public void givenProductNotInCart_whenUpdateItem_thenThrowResourceNotFoundException() {
+		// Method call
+		cartService.updateItem(USER_ID, 1l, 2);
+	}
+
+	/**
+	 * Validate the cart items are limited
+	 */
+	@Test
+	public void givenFullCart_whenAddItem_thenThrowBadRequestExceptionAndKeepCart() {
+		// Data preparation
+		ReflectionTestUtils.setField(cartService, "maximumItems", 2);
+		cartService.addItem(USER_ID, mockOrderItemDto(1l, 1));
+		cartService.addItem(USER_ID, mockOrderItemDto(2l, 1));
+
+		// Method call
+		try {
+			cartService.addItem(USER_ID, mockOrderItemDto(3l, 1));
+			throw new AssertionError("Added an item to a full cart");
+		} catch (BadRequestException e) {
+			// Verification
+			assertThat(cartService.getCart(USER_ID).getItems()).hasSize(2);
+		}
+	}
+
+	/**
+	 * Validate the cart items are ordered and the cart is emptied
+	 */
+	@Test
+	public void givenCartItems_whenPlaceOrder_thenOrderIsAddedAndCartIsEmptied() {
+		// Data preparation
+		cartService.addItem(USER_ID, mockOrderItemDto(1l, 2));
+		OrderResponseDto orderResponse = new OrderResponseDto();
+		orderResponse.setId(10l);
+		Mockito.when(orderService.addOrder(eq(USER_ID), any(OrderDto.class))).thenReturn(orderResponse);
+
+		// Method call
+		OrderResponseDto order = cartService.placeOrder(USER_ID);
+
+		// Verification
+		ArgumentCaptor<OrderDto> orderDto = ArgumentCaptor.forClass(OrderDto.class);
+		verify(orderService, times(1)).addOrder(eq(USER_ID), orderDto.capture());
+		assertThat(order.getId()).isEqualTo(10l);
+		assertThat(orderDto.getValue().getOrderItems()).extracting(OrderItemDto::getQuantity).containsExactly(2);
+		assertThat(cartService.getCart(USER_ID).getItems()).isEmpty();
+	}
+
+	/**
+	 * Validate a cart submitted twice at once is ordered once
+	 */
+	@Test
+	public void givenCartSubmittedTwice_whenPlaceOrder_thenOrderIsAddedOnce() throws Exception {
+		// Data preparation
+		cartService.addItem(USER_ID, mockOrderItemDto(1l, 2));
+		CountDownLatch orderAdding = new CountDownLatch(1);
+		CountDownLatch secondSubmitDone = new CountDownLatch(1);
+		Mockito.when(orderService.addOrder(eq(USER_ID), any(OrderDto.class))).thenAnswer(invocation -> {
+			orderAdding.countDown();
+			secondSubmitDone.await();
+			return new OrderResponseDto();
+		});
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		// Method call
+		Future<OrderResponseDto> firstSubmit = executor.submit(() -> cartService.placeOrder(USER_ID));
+		orderAdding.await();
+		try {
+			cartService.placeOrder(USER_ID);
+			throw new AssertionError("Ordered the cart twice");
+		} catch (BadRequestException e) {
+			// Verification
+			assertThat(e.getMessage()).isEqualTo("The cart is empty.");
+		} finally {
+			secondSubmitDone.countDown();
+		}
+		firstSubmit.get();
+		executor.shutdown();
+		verify(orderService, times(1)).addOrder(eq(USER_ID), any(OrderDto.class));
+	}
+
+	/**
+	 * Validate a failed order gives the cart back, merged with the items added
+	 * meanwhile
+	 */
+	@Test
+	public void givenFailingOrder_whenPlaceOrder_thenCartIsRestored() {
+		// Data preparation
+		cartService.addItem(USER_ID, mockOrderItemDto(1l, 2));
+		Mockito.when(orderService.addOrder(eq(USER_ID), any(OrderDto.class))).thenAnswer(invocation -> {
+			cartService.addItem(USER_ID, mockOrderItemDto(1l, 1));
+			cartService.addItem(USER_ID, mockOrderItemDto(2l, 4));
+			throw new BadRequestException("Invalid order");
+		});
+
+		// Method call
+		try {
+			cartService.placeOrder(USER_ID);
+			throw new AssertionError("BadRequestException is expected");
+		} catch (BadRequestException e) {
+			// Verification
+			CartDto cart = cartService.getCart(USER_ID);
+			assertThat(cart.getItems()).extracting(item -> item.getProduct().getId()).containsExactly(1l, 2l);
+			assertThat(cart.getItems()).extracting(OrderItemDto::getQuantity).containsExactly(3, 4);
+		}
+	}
+
+	/**
+	 * Validate the merged quantity of a product is limited
+	 */
+	@Test
+	public void givenMaximumQuantity_whenAddItem_thenThrowBadRequestExceptionAndKeepCart() {
+		// Data preparation
+		cartService.addItem(USER_ID, mockOrderItemDto(1l, 600));
+
+		// Method call
+		try {
+			cartService.addItem(USER_ID, mockOrderItemDto(1l, 600));
+			throw new AssertionError("Added a quantity above the maximum");
+		} catch (BadRequestException e) {
+			// Verification
+			assertThat(e.getMessage()).isEqualTo("The cart item quantity cannot be more than 1000.");
+			assertThat(cartService.getCart(USER_ID).getItems()).extracting(OrderItemDto::getQuantity)
+					.containsExactly(600);
+		}
+	}
+
+	/**
+	 * Validate an empty cart cannot be ordered
+	 */
+	@Test(expected = BadRequestException.class)
+	public void givenEmptyCart_whenPlaceOrder_thenThrowBadRequestException() {
+		// Method call
+		cartService.placeOrder(USER_ID);
+	}
+
+	/**
+	 * Validate the carts are restored from their snapshot
+	 */
+	@Test
+	public void givenSnapshot_whenInit_thenCartsAreRestored() throws Exception {
+		// Data preparation
+		File snapshot = new File(folder.getRoot(), "carts/carts.json");
+		cartService = cartService(snapshot.getPath());
+		cartService.addItem(USER_ID, mockOrderItemDto(1l, 2));
+		cartService.addItem(2l, mockOrderItemDto(3l, 4));
+
+		// Method call
+		cartService.snapshot();
+		CartServiceImpl restoredCartService = cartService(snapshot.getPath());
+
+		// Verification
+		assertThat(restoredCartService.getCart(USER_ID)).isEqualTo(cartService.getCart(USER_ID));
+		assertThat(restoredCartService.getCart(2l)).isEqualTo(cartService.getCart(2l));
+	}
+
+	private CartServiceImpl cartService(String snapshotLocation) {
+		CartServiceImpl cartService = new CartServiceImpl(orderService, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(cartService, "ttlInMs", 60000l);
+		ReflectionTestUtils.setField(cartService, "maximumSize", 100l);
+		ReflectionTestUtils.setField(cartService, "maximumItems", 50);
+		ReflectionTestUtils.setField(cartService, "maximumQuantity", 1000);
+		ReflectionTestUtils.setField(cartService, "snapshotLocation", snapshotLocation);
+		cartService.init();
+		return cartService;
+	}
+
+	private OrderItemDto mockOrderItemDto(Long productId, int quantity) {
+		OrderItemDto orderItemDto = new OrderItemDto();
+		orderItemDto.setProduct(new ProductDto(productId));
+		orderItemDto.setQuantity(quantity);
+		return orderItemDto;
+	}
+}
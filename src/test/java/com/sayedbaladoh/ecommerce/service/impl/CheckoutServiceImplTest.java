@@ -0,0 +1,157 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
+import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
+import com.sayedbaladoh.ecommerce.exception.ValidationViolationException;
+import com.sayedbaladoh.ecommerce.service.OrderService;
+
+/**
+ * Checkout service unit tests
+ *
+ * Test the asynchronous checkouts
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CheckoutServiceImplTest {
+
+	@Mock
+	private OrderService orderService;
+
+	private ExecutorService checkoutExecutor;
+
+	private CheckoutServiceImpl checkoutService;
+
+	@Before
+	public void setUp() {
+		checkoutExecutor = Executors.newSingleThreadExecutor();
+		checkoutService = new CheckoutServiceImpl(orderService, checkoutExecutor);
+		ReflectionTestUtils.setField(checkoutService, "resultTtlInMs", 60000l);
+		ReflectionTestUtils.setField(checkoutService, "resultMaximumSize", 100l);
+		checkoutService.init();
+	}
+
+	@After
+	public void tearDown() {
+		checkoutExecutor.shutdownNow();
+	}
+
+	/**
+	 * Validate a checkout is empty in progress then returns its session, and a
+	 * checkout in progress is not submitted again
+	 */
+	@Test
+	public void givenSubmittedCheckout_whenGetCheckoutSession_thenReturnSessionOnceCompleted() throws Exception {
+		// Data preparation
+		CountDownLatch gateway = new CountDownLatch(1);
+		CheckoutSession checkoutSession = CheckoutSession.builder().orderId(1l).sessionId("cs_test").build();
+		when(orderService.createCheckoutSession(1l)).thenAnswer(invocation -> {
+			gateway.await();
+			return checkoutSession;
+		});
+
+		// Method call and Verification
+		checkoutService.submitCheckoutSession(1l);
+		checkoutService.submitCheckoutSession(1l);
+		assertThat(checkoutService.getCheckoutSession(1l)).isEmpty();
+
+		gateway.countDown();
+		checkoutExecutor.shutdown();
+		checkoutExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+		assertThat(checkoutService.getCheckoutSession(1l)).containsSame(checkoutSession);
+		verify(orderService, times(1)).createCheckoutSession(1l);
+		Mockito.verifyNoMoreInteractions(orderService);
+	}
+
+	/**
+	 * Validate a completed checkout is returned again instead of being submitted
+	 * again
+	 */
+	@Test
+	public void givenCompletedCheckout_whenSubmitCheckoutSessionAgain_thenCheckoutIsNotSubmittedAgain() throws Exception {
+		// Data preparation
+		CheckoutSession checkoutSession = CheckoutSession.builder().orderId(1l).sessionId("cs_test").build();
+		when(orderService.createCheckoutSession(1l)).thenReturn(checkoutSession);
+		checkoutService.submitCheckoutSession(1l);
+		checkoutExecutor.submit(() -> null).get(5, TimeUnit.SECONDS);
+
+		// Method call
+		checkoutService.submitCheckoutSession(1l);
+		checkoutExecutor.shutdown();
+		checkoutExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+		// Verification
+		assertThat(checkoutService.getCheckoutSession(1l)).containsSame(checkoutSession);
+		verify(orderService, times(1)).createCheckoutSession(1l);
+		Mockito.verifyNoMoreInteractions(orderService);
+	}
+
+	/**
+	 * Validate a failed checkout is submitted again
+	 */
+	@Test
+	public void givenFailedCheckout_whenSubmitCheckoutSessionAgain_thenCheckoutIsSubmittedAgain() throws Exception {
+		// Data preparation
+		CheckoutSession checkoutSession = CheckoutSession.builder().orderId(1l).sessionId("cs_test").build();
+		when(orderService.createCheckoutSession(1l))
+				.thenThrow(new ValidationViolationException(Collections.emptySet()))
+				.thenReturn(checkoutSession);
+		checkoutService.submitCheckoutSession(1l);
+		checkoutExecutor.submit(() -> null).get(5, TimeUnit.SECONDS);
+
+		// Method call
+		checkoutService.submitCheckoutSession(1l);
+		checkoutExecutor.shutdown();
+		checkoutExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+		// Verification
+		assertThat(checkoutService.getCheckoutSession(1l)).containsSame(checkoutSession);
+		verify(orderService, times(2)).createCheckoutSession(1l);
+	}
+
+	/**
+	 * Validate a failed checkout throws its failure
+	 */
+	@Test(expected = ValidationViolationException.class)
+	public void givenFailedCheckout_whenGetCheckoutSession_thenThrowFailure() throws Exception {
+		// Data preparation
+		when(orderService.createCheckoutSession(1l))
+				.thenThrow(new ValidationViolationException(Collections.emptySet()));
+		checkoutService.submitCheckoutSession(1l);
+		checkoutExecutor.shutdown();
+		checkoutExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+		// Method call
+		checkoutService.getCheckoutSession(1l);
+	}
+
+	/**
+	 * Validate polling an order without checkout is not found
+	 */
+	@Test(expected = ResourceNotFoundException.class)
+	public void givenNoCheckout_whenGetCheckoutSession_thenThrowNotFound() {
+		checkoutService.getCheckoutSession(1l);
+	}
+}
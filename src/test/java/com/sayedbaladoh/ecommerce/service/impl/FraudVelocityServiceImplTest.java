@@ -0,0 +1,70 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Fraud velocity service unit tests
+ *
+ * Test the per user orders and spend counters and their sliding windows
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class FraudVelocityServiceImplTest {
+
+	private FraudVelocityServiceImpl fraudVelocityService;
+
+	@Before
+	public void setUp() {
+		fraudVelocityService = new FraudVelocityServiceImpl(new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(fraudVelocityService, "maximumUsers", 100l);
+		fraudVelocityService.init();
+	}
+
+	/**
+	 * Validate the orders and spend are counted per user
+	 */
+	@Test
+	public void givenRecordedOrders_whenGetVelocity_thenReturnUserCounters() {
+		// Method call
+		fraudVelocityService.recordOrder(1l, 10000);
+		fraudVelocityService.recordOrder(1l, 25050);
+		fraudVelocityService.recordOrder(2l, 500);
+
+		// Verification
+		assertThat(fraudVelocityService.getOrdersLastMinute(1l)).isEqualTo(2);
+		assertThat(fraudVelocityService.getSpendLastHourInCents(1l)).isEqualTo(35050);
+		assertThat(fraudVelocityService.getSpendLastDayInCents(1l)).isEqualTo(35050);
+		assertThat(fraudVelocityService.getOrdersLastMinute(2l)).isEqualTo(1);
+		assertThat(fraudVelocityService.getSpendLastDayInCents(3l)).isZero();
+	}
+
+	/**
+	 * Validate the amounts expire a bucket at a time when the window slides
+	 */
+	@Test
+	public void givenOldAmounts_whenWindowSlides_thenOldAmountsExpire() {
+		// Data preparation
+		long minute = TimeUnit.MINUTES.toMillis(1);
+		SlidingWindowCounter counter = new SlidingWindowCounter(minute, 6);
+
+		// Method call
+		counter.add(0, 1);
+		counter.add(30000, 2);
+		counter.add(59999, 4);
+
+		// Verification
+		assertThat(counter.sum(59999)).isEqualTo(7);
+		assertThat(counter.sum(minute)).isEqualTo(6);
+		assertThat(counter.sum(minute + 30000)).isEqualTo(4);
+		assertThat(counter.sum(2 * minute)).isZero();
+	}
+}
@@ -0,0 +1,95 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.exception.BadRequestException;
+import com.sayedbaladoh.ecommerce.exception.ConflictException;
+import com.sayedbaladoh.ecommerce.service.IdempotencyService;
+
+/**
+ * Idempotency service unit tests
+ *
+ * Test the replay of the requests sent with an Idempotency-Key
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class IdempotencyServiceImplTest {
+
+	private IdempotencyServiceImpl idempotencyService;
+
+	private AtomicInteger executions;
+
+	@Before
+	public void setUp() {
+		idempotencyService = new IdempotencyServiceImpl();
+		ReflectionTestUtils.setField(idempotencyService, "keyTtlInMs", 60000l);
+		ReflectionTestUtils.setField(idempotencyService, "maximumSize", 100l);
+		idempotencyService.init();
+		executions = new AtomicInteger();
+	}
+
+	/**
+	 * Validate a retry replays the response and requests without key always run
+	 */
+	@Test
+	public void givenIdempotencyKey_whenExecuteTwice_thenResponseIsReplayed() {
+		// Method call
+		ResponseEntity<Integer> first = idempotencyService.execute("key", "scope", "request", this::created);
+		ResponseEntity<Integer> second = idempotencyService.execute("key", "scope", "request", this::created);
+		idempotencyService.execute("key", "other scope", "request", this::created);
+		idempotencyService.execute(null, "scope", "request", this::created);
+
+		// Verification
+		assertThat(second.getBody()).isEqualTo(first.getBody());
+		assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(second.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(executions.get()).isEqualTo(3);
+	}
+
+	/**
+	 * Validate a key reused with another request is rejected
+	 */
+	@Test(expected = BadRequestException.class)
+	public void givenUsedKey_whenExecuteAnotherRequest_thenThrowBadRequest() {
+		idempotencyService.execute("key", "scope", "request", this::created);
+		idempotencyService.execute("key", "scope", "another request", this::created);
+	}
+
+	/**
+	 * Validate a retry of a request in progress is rejected
+	 */
+	@Test(expected = ConflictException.class)
+	public void givenRequestInProgress_whenExecuteRetry_thenThrowConflict() {
+		idempotencyService.execute("key", "scope", "request",
+				() -> idempotencyService.execute("key", "scope", "request", this::created));
+	}
+
+	/**
+	 * Validate a failed request is not stored and can be retried
+	 */
+	@Test
+	public void givenFailedRequest_whenExecuteRetry_thenRequestRunsAgain() {
+		try {
+			idempotencyService.execute("key", "scope", "request", () -> {
+				throw new IllegalStateException("failed");
+			});
+			fail("IllegalStateException is expected");
+		} catch (IllegalStateException e) {
+			assertThat(idempotencyService.execute("key", "scope", "request", this::created).getBody()).isEqualTo(1);
+		}
+	}
+
+	private ResponseEntity<Integer> created() {
+		return new ResponseEntity<>(executions.incrementAndGet(), HttpStatus.CREATED);
+	}
+}
@@ -0,0 +1,213 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.exception.ValidationViolationException;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.repository.ProductRepository;
+import com.sayedbaladoh.ecommerce.repository.ProductRepository.ProductStock;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
+
+/**
+ * Inventory service unit tests
+ *
+ * Test the stock reservations and the write behind of the stock counters
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class InventoryServiceImplTest {
+
+	@Mock
+	private ProductRepository productRepository;
+
+	private InventoryServiceImpl inventoryService;
+
+	@Before
+	public void setUp() {
+		inventoryService = new InventoryServiceImpl(productRepository);
+		ReflectionTestUtils.setField(inventoryService, "reservationTtlInMs", 60000l);
+		ReflectionTestUtils.setField(inventoryService, "messagePreFix", "These basket items are out of stock: ");
+		when(productRepository.findStocksByIdIn(anyCollection()))
+				.thenReturn(List.of(mockStock(1l, 5), mockStock(2l, 1), mockStock(3l, null)));
+	}
+
+	/**
+	 * Validate reserving an order takes its quantities from the written behind
+	 * stock
+	 */
+	@Test
+	public void givenOrderInStock_whenReserve_thenStockIsWrittenBehind() {
+		// Method call
+		inventoryService.reserve(mockOrder(1l, mockItem(1l, 2), mockItem(1l, 1), mockItem(3l, 7)));
+		inventoryService.flush();
+		inventoryService.flush();
+
+		// Verification
+		verify(productRepository, times(1)).updateStock(1l, 2);
+		verify(productRepository, times(1)).findStocksByIdIn(anyCollection());
+		Mockito.verifyNoMoreInteractions(productRepository);
+	}
+
+	/**
+	 * Validate an order out of stock reserves nothing
+	 */
+	@Test
+	public void givenOrderOutOfStock_whenReserve_thenNothingIsReserved() {
+		// Method call
+		try {
+			inventoryService.reserve(mockOrder(1l, mockItem(1l, 2), mockItem(2l, 2)));
+			fail("ValidationViolationException is expected");
+		} catch (ValidationViolationException e) {
+			// Verification
+			assertThat(e.getConstraintViolations()).hasSize(1);
+			assertThat(e.getConstraintViolations().iterator().next().getType())
+					.isEqualTo(ValidationType.BASKET_ITEMS_STOCK);
+			assertThat(e.getConstraintViolations().iterator().next().getMessage())
+					.isEqualTo("These basket items are out of stock: {#2- Product 2}");
+		}
+		inventoryService.reserve(mockOrder(2l, mockItem(1l, 5)));
+	}
+
+	/**
+	 * Validate releasing and expiring reservations give their stock back
+	 */
+	@Test
+	public void givenReservations_whenReleaseAndExpire_thenStockIsRestored() {
+		// Data preparation
+		inventoryService.reserve(mockOrder(1l, mockItem(1l, 3)));
+		inventoryService.release(1l);
+		inventoryService.reserve(mockOrder(2l, mockItem(1l, 5)));
+		ReflectionTestUtils.setField(inventoryService, "reservationTtlInMs", 0l);
+		inventoryService.reserve(mockOrder(2l, mockItem(1l, 4)));
+
+		// Method call
+		inventoryService.releaseExpiredReservations();
+		inventoryService.flush();
+
+		// Verification
+		verify(productRepository, times(1)).updateStock(1l, 5);
+	}
+
+	/**
+	 * Validate a committed reservation keeps its stock when the expired
+	 * reservations are released
+	 */
+	@Test
+	public void givenCommittedReservation_whenExpire_thenStockIsNotRestored() {
+		// Data preparation
+		ReflectionTestUtils.setField(inventoryService, "reservationTtlInMs", 0l);
+		inventoryService.reserve(mockOrder(1l, mockItem(1l, 3)));
+		inventoryService.commit(1l);
+
+		// Method call
+		inventoryService.releaseExpiredReservations();
+		inventoryService.flush();
+
+		// Verification
+		verify(productRepository, times(1)).updateStock(1l, 2);
+	}
+
+	/**
+	 * Validate resetting the stock of a product keeps its open reservations out
+	 * of the new stock
+	 */
+	@Test
+	public void givenOpenReservation_whenResetStock_thenReservedQuantityIsKept() {
+		// Data preparation
+		inventoryService.reserve(mockOrder(1l, mockItem(1l, 3)));
+		inventoryService.resetStock(1l, 10);
+
+		// Method call
+		inventoryService.release(1l);
+		inventoryService.flush();
+
+		// Verification
+		verify(productRepository, times(1)).updateStock(1l, 10);
+	}
+
+	/**
+	 * Validate concurrent reservations of a hot product never oversell it
+	 */
+	@Test
+	public void givenHotProduct_whenReserveConcurrently_thenStockIsNotOversold() throws Exception {
+		// Data preparation
+		when(productRepository.findStocksByIdIn(anyCollection())).thenReturn(List.of(mockStock(1l, 100)));
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Callable<Boolean>> checkouts = new ArrayList<>();
+		for (long orderId = 1; orderId <= 500; orderId++) {
+			Order order = mockOrder(orderId, mockItem(1l, 1));
+			checkouts.add(() -> {
+				try {
+					inventoryService.reserve(order);
+					return true;
+				} catch (ValidationViolationException e) {
+					return false;
+				}
+			});
+		}
+
+		// Method call
+		int reserved = 0;
+		for (Future<Boolean> checkout : executor.invokeAll(checkouts))
+			if (checkout.get())
+				reserved++;
+		executor.shutdown();
+		inventoryService.flush();
+
+		// Verification
+		assertThat(reserved).isEqualTo(100);
+		verify(productRepository, times(1)).updateStock(1l, 0);
+	}
+
+	private Order mockOrder(Long id, OrderItem... items) {
+		Order order = new Order();
+		order.setId(id);
+		order.setOrderItems(List.of(items));
+		return order;
+	}
+
+	private OrderItem mockItem(Long productId, int quantity) {
+		Product product = new Product(productId);
+		product.setName("Product " + productId);
+		return new OrderItem(null, product, quantity);
+	}
+
+	private ProductStock mockStock(Long id, Integer stock) {
+		return new ProductStock() {
+
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public Integer getStock() {
+				return stock;
+			}
+		};
+	}
+}
@@ -6,6 +6,7 @@ package com.sayedbaladoh.ecommerce.service.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.reset;
@@ -14,13 +15,18 @@ import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -28,19 +34,35 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.sayedbaladoh.ecommerce.dto.common.CursorPage;
 import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
+import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
 import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
 import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemResponseDto;
 import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
 import com.sayedbaladoh.ecommerce.enums.OrderStatus;
+import com.sayedbaladoh.ecommerce.exception.ConflictException;
 import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
 import com.sayedbaladoh.ecommerce.exception.ValidationViolationException;
 import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.model.Product;
 import com.sayedbaladoh.ecommerce.model.User;
 import com.sayedbaladoh.ecommerce.repository.OrderRepository;
+import com.sayedbaladoh.ecommerce.exception.PaymentGetwayException;
+import com.sayedbaladoh.ecommerce.service.FraudVelocityService;
+import com.sayedbaladoh.ecommerce.service.InventoryService;
+import com.sayedbaladoh.ecommerce.service.OrderItemService;
 import com.sayedbaladoh.ecommerce.service.PaymentGateway;
+import com.sayedbaladoh.ecommerce.util.KeysetCursor;
 import com.sayedbaladoh.ecommerce.util.ObjectMapperHelper;
 import com.sayedbaladoh.ecommerce.validations.ValidationContext;
 import com.sayedbaladoh.ecommerce.validations.ValidationViolation;
@@ -66,9 +88,25 @@ public class OrderServiceImplTest {
 	private ValidationContext validationContext;
 	@Mock
 	private PaymentGateway paymentGateway;
+	@Mock
+	private InventoryService inventoryService;
+	@Mock
+	private TransactionTemplate transactionTemplate;
+	@Mock
+	private FraudVelocityService fraudVelocityService;
+	@Mock
+	private OrderItemService orderItemService;
 	@InjectMocks
 	private OrderServiceImpl orderService;
+	@Captor
+	private ArgumentCaptor<Page<Order>> ordersPageCaptor;
 	
+	@Before
+	public void executeTransactions() {
+		Mockito.when(transactionTemplate.execute(any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
 	@After
 	public void setUp() {
 		reset(orderRepository);
@@ -89,10 +127,13 @@ public class OrderServiceImplTest {
 		// Data preparation
 		User user = new User(1l);
 		Order order1 = mockOrder(user);
+		order1.setId(1l);
 		Order order2 = mockOrder(user);
+		order2.setId(2l);
 		Order order3 = mockOrder(user);
+		order3.setId(3l);
 		
-		Page<Order> mockedOrdersPage = new PageImpl<Order>(List.of(order1, order2, order3));
+		Page<Long> mockedOrderIdsPage = new PageImpl<Long>(List.of(order1.getId(), order2.getId(), order3.getId()));
 		
 		ProductResponseDto productDto1 = mockProductResponseDto(1l, "Mobile", 150, true);
 		ProductResponseDto productDto2 = mockProductResponseDto(1l, "Labtop", 200, true);
@@ -104,9 +145,11 @@ public class OrderServiceImplTest {
 		OrderResponseDto orderDto2 = mockOrderResponseDto(1l, OrderStatus.NEW, List.of(orderItem1, orderItem2), 650.0);
 		Page<OrderResponseDto> mockedOrderResponseDtoPage = new PageImpl<OrderResponseDto>(List.of(orderDto1, orderDto2));
 		
-		Mockito.when(orderRepository.findAll(any(Pageable.class)))
-				.thenReturn(mockedOrdersPage);
-		Mockito.when(objectMapperHelper.mapAll(mockedOrdersPage, OrderResponseDto.class))
+		Mockito.when(orderRepository.findAllIds(any(Pageable.class)))
+				.thenReturn(mockedOrderIdsPage);
+		Mockito.when(orderRepository.findAllWithItemsByIdIn(mockedOrderIdsPage.getContent()))
+				.thenReturn(List.of(order3, order1, order2));
+		Mockito.when(objectMapperHelper.mapAll(ArgumentMatchers.<Page<Order>>any(), eq(OrderResponseDto.class)))
 				.thenReturn(mockedOrderResponseDtoPage);
 
 		// Method call
@@ -124,12 +167,72 @@ public class OrderServiceImplTest {
 		assertEquals(ordersPage.getTotalElements(), 2);
 		assertEquals(ordersPage.getTotalPages(), 1);
 
-		Mockito.verify(orderRepository, Mockito.times(1)).findAll(PageRequest.of(0, 5));
+		Mockito.verify(orderRepository, Mockito.times(1)).findAllIds(PageRequest.of(0, 5));
+		Mockito.verify(orderRepository, Mockito.times(1)).findAllWithItemsByIdIn(mockedOrderIdsPage.getContent());
 		Mockito.verifyNoMoreInteractions(orderRepository);
-		Mockito.verify(objectMapperHelper, Mockito.times(1)).mapAll(mockedOrdersPage, OrderResponseDto.class);
+		Mockito.verify(objectMapperHelper, Mockito.times(1)).mapAll(ordersPageCaptor.capture(), eq(OrderResponseDto.class));
 		Mockito.verifyNoMoreInteractions(objectMapperHelper);
+		assertThat(ordersPageCaptor.getValue().getContent()).containsExactly(order1, order2, order3);
 	}
 	
+	/**
+	 * Validate the orders deleted between the ids query and the orders query are
+	 * skipped
+	 * 
+	 * Test method for {@link com.sayedbaladoh.ecommerce.service.impl.OrderServiceImpl#getAllOrders(org.springframework.data.domain.Pageable)}.
+	 */
+	@Test
+	public void givenDeletedOrder_whenGetAllOrders_thenDeletedOrderIsSkipped() {
+		// Data preparation
+		User user = new User(1l);
+		Order order1 = mockOrder(user);
+		order1.setId(1l);
+		Order order3 = mockOrder(user);
+		order3.setId(3l);
+
+		Page<Long> mockedOrderIdsPage = new PageImpl<Long>(List.of(1l, 2l, 3l), PageRequest.of(0, 3), 7);
+
+		Mockito.when(orderRepository.findAllIds(any(Pageable.class)))
+				.thenReturn(mockedOrderIdsPage);
+		Mockito.when(orderRepository.findAllWithItemsByIdIn(mockedOrderIdsPage.getContent()))
+				.thenReturn(List.of(order3, order1));
+
+		// Method call
+		orderService.getAllOrders(PageRequest.of(0, 3));
+
+		// Verification
+		Mockito.verify(objectMapperHelper, Mockito.times(1)).mapAll(ordersPageCaptor.capture(), eq(OrderResponseDto.class));
+		assertThat(ordersPageCaptor.getValue().getContent()).containsExactly(order1, order3);
+		assertEquals(ordersPageCaptor.getValue().getTotalElements(), 7);
+		assertEquals(ordersPageCaptor.getValue().getPageable(), PageRequest.of(0, 3));
+	}
+
+	/**
+	 * Validate a slice with all its orders deleted in the meantime is followed by
+	 * the same cursor
+	 * 
+	 * Test method for {@link com.sayedbaladoh.ecommerce.service.impl.OrderServiceImpl#getOrders(java.lang.String, int)}.
+	 */
+	@Test
+	public void givenDeletedSliceOrders_whenGetOrders_thenNextCursorIsCurrentCursor() {
+		// Data preparation
+		String cursor = KeysetCursor.encode(1000l, 5l);
+		Slice<Long> mockedOrderIdsSlice = new SliceImpl<Long>(List.of(4l, 3l), PageRequest.of(0, 2), true);
+
+		Mockito.when(orderRepository.findSliceIdsBefore(any(Date.class), eq(5l), any(Pageable.class)))
+				.thenReturn(mockedOrderIdsSlice);
+		Mockito.when(orderRepository.findAllWithItemsByIdIn(mockedOrderIdsSlice.getContent()))
+				.thenReturn(Collections.emptyList());
+
+		// Method call
+		CursorPage<OrderResponseDto> orders = orderService.getOrders(cursor, 2);
+
+		// Verification
+		assertThat(orders.isHasNext()).isTrue();
+		assertEquals(orders.getSize(), 0);
+		assertEquals(orders.getNextCursor(), cursor);
+	}
+
 	/**
 	 * Validate get all orders with empty list
 	 * 
@@ -142,12 +245,12 @@ public class OrderServiceImplTest {
 			throws Exception {
 		
 		// Data preparation
-		Page<Order> mockedOrdersPage = new PageImpl<Order>(Collections.emptyList());
+		Page<Long> mockedOrderIdsPage = new PageImpl<Long>(Collections.emptyList());
 		PageImpl<OrderResponseDto> orderResponseDtoPage = new PageImpl<OrderResponseDto>(Collections.emptyList());
 		
-		Mockito.when(orderRepository.findAll(any(Pageable.class)))
-				.thenReturn(mockedOrdersPage);
-		Mockito.when(objectMapperHelper.mapAll(mockedOrdersPage, OrderResponseDto.class))
+		Mockito.when(orderRepository.findAllIds(any(Pageable.class)))
+				.thenReturn(mockedOrderIdsPage);
+		Mockito.when(objectMapperHelper.mapAll(ArgumentMatchers.<Page<Order>>any(), eq(OrderResponseDto.class)))
 				.thenReturn(orderResponseDtoPage);
 		
 		// Method call
@@ -161,9 +264,9 @@ public class OrderServiceImplTest {
 		assertEquals(ordersPage.getTotalElements(), 0);
 		assertEquals(ordersPage.getTotalPages(), 1);
 		
-		Mockito.verify(orderRepository, Mockito.times(1)).findAll(PageRequest.of(0, 5));
+		Mockito.verify(orderRepository, Mockito.times(1)).findAllIds(PageRequest.of(0, 5));
 		Mockito.verifyNoMoreInteractions(orderRepository);
-		Mockito.verify(objectMapperHelper, Mockito.times(1)).mapAll(mockedOrdersPage, OrderResponseDto.class);
+		Mockito.verify(objectMapperHelper, Mockito.times(1)).mapAll(ArgumentMatchers.<Page<Order>>any(), eq(OrderResponseDto.class));
 		Mockito.verifyNoMoreInteractions(objectMapperHelper);
 	}
 	
@@ -235,6 +338,39 @@ public class OrderServiceImplTest {
 	 * 
 	 * @throws Exception
 	 */
+	/**
+	 * Validate a new order is counted in the user velocity once its transaction
+	 * is committed
+	 */
+	@Test
+	public void givenValidOrder_whenAddOrder_thenOrderIsRecordedAfterCommit() {
+		// Data preparation
+		User user = new User(1l);
+		Order mockedOrder = mockOrder(user);
+		Product product = new Product(1l);
+		product.setPriceInCents(25000);
+		OrderDto orderDto = new OrderDto();
+		Mockito.when(validationContext.execute(ValidationDomain.ORDER_SAVE, orderDto)).thenReturn(Collections.emptySet());
+		Mockito.when(objectMapperHelper.map(orderDto, Order.class)).thenReturn(mockedOrder);
+		Mockito.when(orderRepository.save(mockedOrder)).thenReturn(mockedOrder);
+		Mockito.when(orderItemService.addOrderItems(mockedOrder, orderDto.getOrderItems()))
+				.thenReturn(List.of(new OrderItem(mockedOrder, product, 2)));
+
+		// Method call
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			orderService.addOrder(user.getId(), orderDto);
+
+			// Verification
+			Mockito.verifyZeroInteractions(fraudVelocityService);
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		verify(fraudVelocityService, times(1)).recordOrder(user.getId(), 50000l);
+		Mockito.verifyNoMoreInteractions(fraudVelocityService);
+	}
+
 	@Test
 	public void givenValidOrder_whenCreateCheckoutSession_thenOrderCheckoutSessionCreated() throws IOException, Exception {
 		// Data preparation
@@ -244,7 +380,7 @@ public class OrderServiceImplTest {
 
 		CheckoutSession mockedCheckoutSession = mockCheckoutSession(mockedOrder.getId(), "125489515dd55ds5ds5fADASD", "unpaid", "https://checkout.stripe.com/pay/cs_test_123454785199");
 		
-		Mockito.when(orderRepository.findById(mockedOrder.getId()))
+		Mockito.when(orderRepository.findWithItemsById(mockedOrder.getId()))
 				.thenReturn(Optional.of(mockedOrder));
 		Mockito.when(validationContext.execute(ValidationDomain.CHECK_OUT, mockedOrder))
 				.thenReturn(Collections.emptySet());
@@ -261,13 +397,170 @@ public class OrderServiceImplTest {
 		assertEquals(checkoutSession.getSessionId(), mockedCheckoutSession.getSessionId());
 		assertEquals(checkoutSession.getUrl(), mockedCheckoutSession.getUrl());
 
-		Mockito.verify(orderRepository, Mockito.times(1)).findById( mockedOrder.getId());
+		Mockito.verify(orderRepository, Mockito.times(1)).findWithItemsById(mockedOrder.getId());
 		Mockito.verify(orderRepository, Mockito.times(1)).save(mockedOrder);
 		Mockito.verifyNoMoreInteractions(orderRepository);
 		verify(validationContext, times(1)).execute(ValidationDomain.CHECK_OUT, mockedOrder);
 		Mockito.verifyNoMoreInteractions(validationContext);
 		verify(paymentGateway, times(1)).createCheckoutSession(mockedOrder);
 		Mockito.verifyNoMoreInteractions(paymentGateway);
+		verify(inventoryService, times(1)).reserve(mockedOrder);
+		Mockito.verifyNoMoreInteractions(inventoryService);
+	}
+
+	/**
+	 * Verify an order already checked out is not checked out again
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.service.impl.OrderServiceImpl#createCheckoutSession(java.lang.Long)}.
+	 */
+	@Test
+	public void givenCheckedOutOrder_whenCreateCheckoutSession_thenConflictAndStockIsNotReserved() {
+		// Data preparation
+		User user = new User(1l);
+		Order mockedOrder = mockOrder(user);
+		mockedOrder.setId(1l);
+		mockedOrder.setStatus(OrderStatus.CHECKOUT_SESSION_RETRIEVED);
+
+		Mockito.when(orderRepository.findWithItemsById(mockedOrder.getId()))
+				.thenReturn(Optional.of(mockedOrder));
+
+		// Method call
+		try {
+			orderService.createCheckoutSession(mockedOrder.getId());
+			fail("ConflictException is expected");
+		} catch (ConflictException e) {
+			// Verification
+			assertEquals("Order with id: 1 is already checked out.", e.getMessage());
+			Mockito.verifyZeroInteractions(inventoryService);
+			Mockito.verifyZeroInteractions(paymentGateway);
+			Mockito.verifyZeroInteractions(validationContext);
+		}
+	}
+
+	/**
+	 * Verify a paid order is marked paid and its stock reservation committed
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.service.impl.OrderServiceImpl#confirmPayment(java.lang.Long)}.
+	 */
+	@Test
+	public void givenPaidCheckoutSession_whenConfirmPayment_thenOrderIsPaidAndStockCommitted() {
+		// Data preparation
+		Order mockedOrder = mockCheckedOutOrder();
+
+		Mockito.when(paymentGateway.getPaymentStatus("cs_test_1")).thenReturn(PaymentGateway.PAYMENT_STATUS_PAID);
+		Mockito.when(orderRepository.updateStatus(mockedOrder.getId(), OrderStatus.CHECKOUT_SESSION_RETRIEVED,
+				OrderStatus.PAID)).thenReturn(1);
+		Mockito.when(inventoryService.commit(mockedOrder.getId())).thenReturn(true);
+
+		// Method call
+		orderService.confirmPayment(mockedOrder.getId());
+
+		// Verification
+		assertEquals(OrderStatus.PAID, mockedOrder.getStatus());
+		verify(inventoryService, times(1)).commit(mockedOrder.getId());
+		Mockito.verifyNoMoreInteractions(inventoryService);
+	}
+
+	/**
+	 * Verify the stock of a paid order is taken again when its reservation expired
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.service.impl.OrderServiceImpl#confirmPayment(java.lang.Long)}.
+	 */
+	@Test
+	public void givenExpiredReservation_whenConfirmPayment_thenStockIsReservedAgainAndCommitted() {
+		// Data preparation
+		Order mockedOrder = mockCheckedOutOrder();
+
+		Mockito.when(paymentGateway.getPaymentStatus("cs_test_1")).thenReturn(PaymentGateway.PAYMENT_STATUS_PAID);
+		Mockito.when(orderRepository.updateStatus(mockedOrder.getId(), OrderStatus.CHECKOUT_SESSION_RETRIEVED,
+				OrderStatus.PAID)).thenReturn(1);
+		Mockito.when(inventoryService.commit(mockedOrder.getId())).thenReturn(false, true);
+
+		// Method call
+		orderService.confirmPayment(mockedOrder.getId());
+
+		// Verification
+		verify(inventoryService, times(1)).reserve(mockedOrder);
+		verify(inventoryService, times(2)).commit(mockedOrder.getId());
+		Mockito.verifyNoMoreInteractions(inventoryService);
+	}
+
+	/**
+	 * Verify an order confirmed concurrently commits its stock once
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.service.impl.OrderServiceImpl#confirmPayment(java.lang.Long)}.
+	 */
+	@Test
+	public void givenConcurrentConfirmation_whenConfirmPayment_thenStockIsNotCommittedAgain() {
+		// Data preparation
+		Order mockedOrder = mockCheckedOutOrder();
+
+		Mockito.when(paymentGateway.getPaymentStatus("cs_test_1")).thenReturn(PaymentGateway.PAYMENT_STATUS_PAID);
+		Mockito.when(orderRepository.updateStatus(mockedOrder.getId(), OrderStatus.CHECKOUT_SESSION_RETRIEVED,
+				OrderStatus.PAID)).thenReturn(0);
+
+		// Method call
+		orderService.confirmPayment(mockedOrder.getId());
+
+		// Verification
+		Mockito.verifyZeroInteractions(inventoryService);
+	}
+
+	/**
+	 * Verify an unpaid order is not marked paid
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.service.impl.OrderServiceImpl#confirmPayment(java.lang.Long)}.
+	 */
+	@Test
+	public void givenUnpaidCheckoutSession_whenConfirmPayment_thenConflictAndStockIsNotCommitted() {
+		// Data preparation
+		Order mockedOrder = mockCheckedOutOrder();
+
+		Mockito.when(paymentGateway.getPaymentStatus("cs_test_1")).thenReturn("unpaid");
+
+		// Method call
+		try {
+			orderService.confirmPayment(mockedOrder.getId());
+			fail("ConflictException is expected");
+		} catch (ConflictException e) {
+			// Verification
+			assertEquals("Order with id: 1 is not paid yet.", e.getMessage());
+			assertEquals(OrderStatus.CHECKOUT_SESSION_RETRIEVED, mockedOrder.getStatus());
+			verify(orderRepository, Mockito.never()).updateStatus(any(), any(), any());
+			Mockito.verifyZeroInteractions(inventoryService);
+		}
+	}
+
+	/**
+	 * Verify the stock reservation is released when the payment gateway fails
+	 *
+	 * Test method for {@link com.sayedbaladoh.ecommerce.service.impl.OrderServiceImpl#createCheckoutSession(java.lang.Long)}.
+	 */
+	@Test
+	public void givenPaymentGatewayFailure_whenCreateCheckoutSession_thenStockReservationReleased() {
+		// Data preparation
+		User user = new User(1l);
+		Order mockedOrder = mockOrder(user);
+		mockedOrder.setId(1l);
+
+		Mockito.when(orderRepository.findWithItemsById(mockedOrder.getId()))
+				.thenReturn(Optional.of(mockedOrder));
+		Mockito.when(validationContext.execute(ValidationDomain.CHECK_OUT, mockedOrder))
+				.thenReturn(Collections.emptySet());
+		Mockito.when(paymentGateway.createCheckoutSession(mockedOrder))
+				.thenThrow(new PaymentGetwayException("Gateway is not available"));
+
+		// Method call
+		try {
+			orderService.createCheckoutSession(mockedOrder.getId());
+			fail("PaymentGetwayException is expected");
+		} catch (PaymentGetwayException e) {
+			// Verification
+			verify(inventoryService, times(1)).reserve(mockedOrder);
+			verify(inventoryService, times(1)).release(mockedOrder.getId());
+			Mockito.verifyNoMoreInteractions(inventoryService);
+			verify(orderRepository, Mockito.never()).save(mockedOrder);
+		}
 	}
 	
 	/**
@@ -286,7 +579,7 @@ public class OrderServiceImplTest {
 
 		CheckoutSession mockedCheckoutSession = mockCheckoutSession(mockedOrder.getId(), "125489515dd55ds5ds5fADASD", "unpaid", "https://checkout.stripe.com/pay/cs_test_123454785199");
 		
-		Mockito.when(orderRepository.findById(mockedOrder.getId()))
+		Mockito.when(orderRepository.findWithItemsById(mockedOrder.getId()))
 				.thenReturn(Optional.of(mockedOrder));
 		Mockito.when(validationContext.execute(ValidationDomain.CHECK_OUT, mockedOrder))
 				.thenReturn(Set.of(new ValidationViolation(ValidationType.BASKET_ITEMS_AVAILABILITY, "These basket items are not available: {#2- LabTop, #6- Phone}")));
@@ -313,7 +606,7 @@ public class OrderServiceImplTest {
 
 		CheckoutSession mockedCheckoutSession = mockCheckoutSession(mockedOrder.getId(), "125489515dd55ds5ds5fADASD", "unpaid", "https://checkout.stripe.com/pay/cs_test_123454785199");
 		
-		Mockito.when(orderRepository.findById(mockedOrder.getId()))
+		Mockito.when(orderRepository.findWithItemsById(mockedOrder.getId()))
 				.thenReturn(Optional.of(mockedOrder));
 		Mockito.when(validationContext.execute(ValidationDomain.CHECK_OUT, mockedOrder))
 				.thenReturn(Set.of(new ValidationViolation(ValidationType.USER_FRAUD, "User is fraud, the fraud user's order basket has more than 1500 money value.")));
@@ -340,7 +633,7 @@ public class OrderServiceImplTest {
 
 		CheckoutSession mockedCheckoutSession = mockCheckoutSession(mockedOrder.getId(), "125489515dd55ds5ds5fADASD", "unpaid", "https://checkout.stripe.com/pay/cs_test_123454785199");
 		
-		Mockito.when(orderRepository.findById(mockedOrder.getId()))
+		Mockito.when(orderRepository.findWithItemsById(mockedOrder.getId()))
 				.thenReturn(Optional.of(mockedOrder));
 		Mockito.when(validationContext.execute(ValidationDomain.CHECK_OUT, mockedOrder))
 				.thenReturn(Set.of(new ValidationViolation(ValidationType.TOTAL_BASKET_MONEY, "The total basket money value less than 100.")));
@@ -358,6 +651,15 @@ public class OrderServiceImplTest {
 		return order;
 	}
 	
+	private Order mockCheckedOutOrder() {
+		Order order = mockOrder(new User(1l));
+		order.setId(1l);
+		order.setStatus(OrderStatus.CHECKOUT_SESSION_RETRIEVED);
+		order.setSessionId("cs_test_1");
+		Mockito.when(orderRepository.findWithItemsById(order.getId())).thenReturn(Optional.of(order));
+		return order;
+	}
+
 	private ProductResponseDto mockProductResponseDto(Long id, String name, double price, boolean available) {
 		ProductResponseDto productResponseDto = new ProductResponseDto();
 		productResponseDto.setId(id);
@@ -0,0 +1,219 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.dto.common.FacetedPage;
+import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
+import com.sayedbaladoh.ecommerce.exception.BadRequestException;
+import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.repository.ProductRepository;
+import com.sayedbaladoh.ecommerce.service.ProductSearchService;
+import com.sayedbaladoh.ecommerce.service.ProductService;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+
+/**
+ * Product search service unit tests
+ *
+ * Test the products inverted index, its ranking, filters and updates, and the
+ * faceted browsing of the products, read from the product service
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ProductSearchServiceImplTest {
+
+	private final Pageable PAGE = PageRequest.of(0, 10);
+
+	@Mock
+	private ProductRepository productRepository;
+	@Mock
+	private ProductService productService;
+	@InjectMocks
+	private ProductSearchServiceImpl productSearchService;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(productSearchService, "priceBuckets", new double[] { 0, 10, 50, 100, 500 });
+		Mockito.when(productService.getProductDtos(anyList())).thenAnswer(invocation -> invocation
+				.<List<Long>>getArgument(0).stream().map(this::mockProductResponseDto).collect(Collectors.toList()));
+
+		Mockito.when(productRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+				.thenReturn(new SliceImpl<>(List.of(
+						mockProduct(1l, "Samsung Mobile", "Android phone", 500, true),
+						mockProduct(2l, "Phone case", "Case for a mobile", 20, true),
+						mockProduct(3l, "Mobile charger", "Fast charger", 30, false),
+						mockProduct(4l, "TV Set", "Smart télévision", 350, true))));
+		productSearchService.rebuild();
+	}
+
+	/**
+	 * Validate the prefix matching and the name matches ranked first
+	 */
+	@Test
+	public void givenTermPrefix_whenSearch_thenReturnMatchingProductsRankedByRelevance() {
+		// Method call
+		Page<ProductResponseDto> products = productSearchService.search("mob", null, null, null, PAGE);
+
+		// Verification
+		assertThat(products.getTotalElements()).isEqualTo(3);
+		assertThat(products.getContent()).extracting(ProductResponseDto::getId).containsExactly(1l, 3l, 2l);
+	}
+
+	/**
+	 * Validate the content of the matching products is read from the product
+	 * service, so their stock is not stale
+	 */
+	@Test
+	public void givenStockChange_whenSearch_thenReturnCurrentStock() {
+		// Data preparation
+		ProductResponseDto product = mockProductResponseDto(4l);
+		product.setStock(3);
+		Mockito.when(productService.getProductDtos(List.of(4l))).thenReturn(List.of(product));
+
+		// Method call
+		Page<ProductResponseDto> products = productSearchService.search("tv", null, null, null, PAGE);
+
+		// Verification
+		assertThat(products.getContent()).containsExactly(product);
+		Mockito.verify(productService, Mockito.times(1)).getProductDtos(List.of(4l));
+		Mockito.verifyNoMoreInteractions(productService);
+	}
+
+	/**
+	 * Validate all the query terms must match, ignoring case and accents
+	 */
+	@Test
+	public void givenManyTerms_whenSearch_thenReturnProductsMatchingAllTerms() {
+		// Method call
+		Page<ProductResponseDto> products = productSearchService.search("SMART Television", null, null, null, PAGE);
+
+		// Verification
+		assertThat(products.getContent()).extracting(ProductResponseDto::getId).containsExactly(4l);
+		assertThat(productSearchService.search("smart mobile", null, null, null, PAGE).getContent()).isEmpty();
+	}
+
+	/**
+	 * Validate the availability and price range filters
+	 */
+	@Test
+	public void givenFilters_whenSearch_thenReturnFilteredProducts() {
+		// Method call
+		Page<ProductResponseDto> products = productSearchService.search("mobile", true, 10d, 100d, PAGE);
+
+		// Verification
+		assertThat(products.getContent()).extracting(ProductResponseDto::getId).containsExactly(2l);
+		assertThat(productSearchService.search(null, false, null, null, PAGE).getContent())
+				.extracting(ProductResponseDto::getId).containsExactly(3l);
+	}
+
+	/**
+	 * Validate an updated product is searched by its new terms only
+	 */
+	@Test
+	public void givenUpdatedProduct_whenIndex_thenOldTermsAreRemoved() {
+		// Method call
+		productSearchService.index(mockProduct(4l, "Television", "4K screen", 350, true));
+
+		// Verification
+		assertThat(productSearchService.search("smart", null, null, null, PAGE).getContent()).isEmpty();
+		assertThat(productSearchService.search("4k", null, null, null, PAGE).getContent())
+				.extracting(ProductResponseDto::getId).containsExactly(4l);
+	}
+
+	/**
+	 * Validate the facet filters, OR within a facet and AND across facets, and
+	 * each facet counted without its own filter
+	 */
+	@Test
+	public void givenFacetFilters_whenBrowse_thenReturnFilteredProductsAndFacetCounts() {
+		// Data preparation
+		Map<String, Set<String>> filters = Map.of(ProductSearchService.FACET_AVAILABLE, Set.of("true"),
+				ProductSearchService.FACET_PRICE, Set.of("10-50", "100-500"));
+
+		// Method call
+		FacetedPage<ProductResponseDto> products = productSearchService.browse(filters, PAGE);
+
+		// Verification
+		assertThat(products.getTotalElements()).isEqualTo(2);
+		assertThat(products.getContent()).extracting(ProductResponseDto::getId).containsExactly(2l, 4l);
+		assertThat(products.getFacets().get(ProductSearchService.FACET_AVAILABLE))
+				.containsExactly(Map.entry("true", 2l), Map.entry("false", 1l));
+		assertThat(products.getFacets().get(ProductSearchService.FACET_PRICE)).containsExactly(
+				Map.entry("0-10", 0l), Map.entry("10-50", 1l), Map.entry("50-100", 0l), Map.entry("100-500", 1l),
+				Map.entry("500-", 1l));
+	}
+
+	/**
+	 * Validate the id ordered pages and the pages sorted by price
+	 */
+	@Test
+	public void givenPageable_whenBrowse_thenReturnRequestedPage() {
+		// Method call
+		FacetedPage<ProductResponseDto> products = productSearchService.browse(Map.of(), PageRequest.of(1, 3));
+		FacetedPage<ProductResponseDto> productsByPrice = productSearchService.browse(Map.of(),
+				PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "price")));
+
+		// Verification
+		assertThat(products.getTotalElements()).isEqualTo(4);
+		assertThat(products.getContent()).extracting(ProductResponseDto::getId).containsExactly(4l);
+		assertThat(productsByPrice.getContent()).extracting(ProductResponseDto::getId).containsExactly(1l, 4l);
+	}
+
+	/**
+	 * Validate a product moved to another price bucket on update
+	 */
+	@Test
+	public void givenUpdatedProductPrice_whenIndex_thenProductMovesToNewPriceBucket() {
+		// Method call
+		productSearchService.index(mockProduct(4l, "TV Set", "Smart télévision", 5, true));
+
+		// Verification
+		FacetedPage<ProductResponseDto> products = productSearchService
+				.browse(Map.of(ProductSearchService.FACET_PRICE, Set.of("0-10")), PAGE);
+		assertThat(products.getContent()).extracting(ProductResponseDto::getId).containsExactly(4l);
+		assertThat(products.getFacets().get(ProductSearchService.FACET_PRICE)).containsEntry("100-500", 0l);
+	}
+
+	/**
+	 * Validate sorting by an unsupported property is rejected
+	 */
+	@Test(expected = BadRequestException.class)
+	public void givenUnsupportedSort_whenBrowse_thenThrowBadRequestException() {
+		// Method call
+		productSearchService.browse(Map.of(), PageRequest.of(0, 10, Sort.by("stock")));
+	}
+
+	private Product mockProduct(Long id, String name, String description, double price, boolean available) {
+		return new Product(id, name, MoneyUtil.toCents(price), available, null, "", description, new Date(),
+				new Date());
+	}
+
+	private ProductResponseDto mockProductResponseDto(Long id) {
+		ProductResponseDto productResponse = new ProductResponseDto();
+		productResponse.setId(id);
+		return productResponse;
+	}
+}
@@ -10,13 +10,13 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.data.domain.Page;
@@ -24,13 +24,19 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.sayedbaladoh.ecommerce.dto.product.ProductRequestDto;
 import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
 import com.sayedbaladoh.ecommerce.model.Product;
 import com.sayedbaladoh.ecommerce.repository.ProductRepository;
+import com.sayedbaladoh.ecommerce.service.InventoryService;
+import com.sayedbaladoh.ecommerce.service.ProductSearchService;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
 import com.sayedbaladoh.ecommerce.util.ObjectMapperHelper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Product service unit tests
  * 
@@ -48,7 +54,11 @@ public class ProductServiceImplTest {
 	private ProductRepository productRepository;
 	@Mock
 	private ObjectMapperHelper objectMapperHelper;
-	@InjectMocks
+	@Mock
+	private InventoryService inventoryService;
+	@Mock
+	private ProductSearchService productSearchService;
+	private SimpleMeterRegistry meterRegistry;
 	private ProductServiceImpl productService;
 
 	private Product product1;
@@ -82,6 +92,14 @@ public class ProductServiceImplTest {
 		Mockito.when(objectMapperHelper.map(any(ProductRequestDto.class), eq(Product.class))).thenReturn(product1);
 		Mockito.when(objectMapperHelper.map(any(Product.class), eq(ProductResponseDto.class)))
 				.thenReturn(mockProductResponseDto(product1));
+
+		meterRegistry = new SimpleMeterRegistry();
+		productService = new ProductServiceImpl(productRepository, objectMapperHelper, inventoryService,
+				productSearchService, meterRegistry);
+		ReflectionTestUtils.setField(productService, "cacheTtlInMs", 60000);
+		ReflectionTestUtils.setField(productService, "productCacheMaximumSize", 100);
+		ReflectionTestUtils.setField(productService, "pageCacheMaximumSize", 100);
+		productService.init();
 	}
 	
 	@After
@@ -143,6 +161,72 @@ public class ProductServiceImplTest {
 		Mockito.verifyNoMoreInteractions(objectMapperHelper);
 	}
 
+	/**
+	 * Validate getting a products page twice hits the database once
+	 */
+	@Test
+	public void givenCachedProductsPage_whenGetAllProductsAgain_thenReturnCachedPage() {
+		// Data preparation
+		Page<ProductResponseDto> firstPage = productService.getAllProducts(PageRequest.of(0, 5));
+
+		// Method call
+		Page<ProductResponseDto> productsPage = productService.getAllProducts(PageRequest.of(0, 5));
+
+		// Verification
+		assertThat(productsPage).isSameAs(firstPage);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "productPages").tag("result", "hit")
+				.functionCounter().count()).isEqualTo(1.0);
+		Mockito.verify(productRepository, Mockito.times(1)).findAll(PageRequest.of(0, 5));
+		Mockito.verifyNoMoreInteractions(productRepository);
+	}
+
+	/**
+	 * Validate a product is loaded again after its update
+	 */
+	@Test
+	public void givenCachedProduct_whenUpdateProduct_thenProductIsLoadedAgain() {
+		// Data preparation
+		Mockito.when(objectMapperHelper.map(any(ProductRequestDto.class), any(Product.class))).thenReturn(product1);
+		productService.getProductDto(product1.getId());
+		productService.getProductDto(product1.getId());
+		productService.getAllProducts(PageRequest.of(0, 5));
+
+		// Method call
+		productService.updateProduct(product1.getId(), mockProductRequestDto(product1));
+		productService.getProductDto(product1.getId());
+		productService.getAllProducts(PageRequest.of(0, 5));
+
+		// Verification
+		Mockito.verify(productRepository, Mockito.times(3)).findById(product1.getId());
+		Mockito.verify(productRepository, Mockito.times(2)).findAll(PageRequest.of(0, 5));
+		Mockito.verify(productRepository, Mockito.times(1)).save(product1);
+		Mockito.verifyNoMoreInteractions(productRepository);
+	}
+
+	/**
+	 * Validate the products of many ids are read from the cache, the missing ones
+	 * loaded in one query and returned in the ids order
+	 */
+	@Test
+	public void givenPartlyCachedProducts_whenGetProductDtos_thenLoadMissingOnesOnce() {
+		// Data preparation
+		Product product3 = mockedProducts.get(2);
+		Mockito.when(productRepository.findAllById(Set.of(3l))).thenReturn(List.of(product3));
+		Mockito.when(objectMapperHelper.mapAll(List.of(product3), ProductResponseDto.class))
+				.thenReturn(List.of(mockProductResponseDto(product3)));
+		productService.getProductDto(product1.getId());
+
+		// Method call
+		List<ProductResponseDto> products = productService.getProductDtos(List.of(3l, 1l));
+		productService.getProductDtos(List.of(1l, 3l));
+
+		// Verification
+		assertThat(products).extracting(ProductResponseDto::getId).containsExactly(3l, 1l);
+		Mockito.verify(productRepository, Mockito.times(1)).findById(product1.getId());
+		Mockito.verify(productRepository, Mockito.times(1)).findAllById(Set.of(3l));
+		Mockito.verifyNoMoreInteractions(productRepository);
+	}
+
 	/**
 	 * Validate get product by Id
 	 */
@@ -156,7 +240,7 @@ public class ProductServiceImplTest {
 		assertEquals(product.get().getId(), product1.getId());
 		assertEquals(product.get().getName(), product1.getName());
 		assertEquals(product.get().isAvailable(), product1.isAvailable());
-		assertThat(product.get().getPrice()).isEqualTo(product1.getPrice());
+		assertThat(product.get().getPriceInCents()).isEqualTo(product1.getPriceInCents());
 
 		Mockito.verify(productRepository, Mockito.times(1)).findById(product1.getId());
 		Mockito.verifyNoMoreInteractions(productRepository);
@@ -177,6 +261,25 @@ public class ProductServiceImplTest {
 		Mockito.verifyNoMoreInteractions(productRepository);
 	}
 
+	/**
+	 * Validate get missing product ids with duplicated and not found ids
+	 */
+	@Test
+	public void givenDuplicatedAndInvalidProductIds_whenGetMissingProductIds_thenReturnMissingIdsOnly() {
+		// Data preparation
+		Mockito.when(productRepository.findExistingIds(Set.of(product1.getId(), INVALID_ID)))
+				.thenReturn(Set.of(product1.getId()));
+
+		// Method call
+		Set<Long> missingIds = productService.getMissingProductIds(List.of(product1.getId(), INVALID_ID, product1.getId()));
+
+		// Verification
+		assertThat(missingIds).containsExactly(INVALID_ID);
+
+		Mockito.verify(productRepository, Mockito.times(1)).findExistingIds(Set.of(product1.getId(), INVALID_ID));
+		Mockito.verifyNoMoreInteractions(productRepository);
+	}
+
 	/**
 	 * Validate add product with valid product
 	 */
@@ -222,6 +325,7 @@ public class ProductServiceImplTest {
 		// Data preparation
 		ProductRequestDto productRequest = mockProductRequestDto(product1);
 		productRequest.setName("test");
+		productRequest.setStock(7);
 
 		Product updatedProduct = product1;
 		updatedProduct.setName(productRequest.getName());
@@ -247,18 +351,37 @@ public class ProductServiceImplTest {
 		Mockito.verify(objectMapperHelper, Mockito.times(1)).map(any(ProductRequestDto.class), any(Product.class));
 		Mockito.verify(objectMapperHelper, Mockito.times(1)).map(any(Product.class), eq(ProductResponseDto.class));
 		Mockito.verifyNoMoreInteractions(objectMapperHelper);
+		Mockito.verify(inventoryService, Mockito.times(1)).resetStock(1l, 7);
+		Mockito.verifyNoMoreInteractions(inventoryService);
+	}
+
+	@Test
+	public void whenProductWithoutStock_thenProductStockShouldBeKept() {
+
+		// Data preparation
+		ProductRequestDto productRequest = mockProductRequestDto(product1);
+		Mockito.when(objectMapperHelper.map(any(ProductRequestDto.class), any(Product.class))).thenReturn(product1);
+		Mockito.when(objectMapperHelper.map(any(Product.class), eq(ProductResponseDto.class)))
+				.thenReturn(mockProductResponseDto(product1));
+
+		// Method call
+		productService.updateProduct(1l, productRequest);
+
+		// Verification
+		Mockito.verify(productRepository, Mockito.times(1)).save(product1);
+		Mockito.verifyZeroInteractions(inventoryService);
 	}
 
 	private Product mockProduct(Long id, String name, double price, boolean available) {
 
-		return new Product(id, name, price, available, "", "", new Date(), new Date());
+		return new Product(id, name, MoneyUtil.toCents(price), available, null, "", "", new Date(), new Date());
 	}
 
 	private ProductRequestDto mockProductRequestDto(Product product) {
 
 		ProductRequestDto productRequest = new ProductRequestDto();
 		productRequest.setName(product.getName());
-		productRequest.setPrice(product.getPrice());
+		productRequest.setPrice(MoneyUtil.toUnits(product.getPriceInCents()));
 		productRequest.setAvailable(product.isAvailable());
 		productRequest.setDescription(product.getDescription());
 		productRequest.setImageURL(product.getImageURL());
@@ -270,7 +393,7 @@ public class ProductServiceImplTest {
 		ProductResponseDto productResponse = new ProductResponseDto();
 		productResponse.setId(product.getId());
 		productResponse.setName(product.getName());
-		productResponse.setPrice(product.getPrice());
+		productResponse.setPrice(MoneyUtil.toUnits(product.getPriceInCents()));
 		productResponse.setAvailable(product.isAvailable());
 		productResponse.setDescription(product.getDescription());
 		productResponse.setImageURL(product.getImageURL());
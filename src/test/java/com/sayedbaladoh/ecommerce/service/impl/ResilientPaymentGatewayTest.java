@@ -0,0 +1,188 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
+import com.sayedbaladoh.ecommerce.exception.PaymentGatewayUnavailableException;
+import com.sayedbaladoh.ecommerce.exception.PaymentGetwayException;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.service.PaymentGateway;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Resilient payment gateway unit tests
+ *
+ * Test the call timeout, the bulkhead and the circuit breaker around the payment
+ * provider
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ResilientPaymentGatewayTest {
+
+	@Mock
+	private PaymentGateway paymentProvider;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private ResilientPaymentGateway paymentGateway;
+
+	private Order order;
+
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		paymentGateway = new ResilientPaymentGateway(paymentProvider, meterRegistry, 2, 200, 50, 1000, 4, 4, 60000,
+				1);
+		order = new Order();
+		order.setId(1l);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		paymentGateway.close();
+	}
+
+	/**
+	 * Validate a checkout session is returned from the provider
+	 */
+	@Test
+	public void givenAvailableProvider_whenCreateCheckoutSession_thenReturnProviderSession() {
+		// Data preparation
+		CheckoutSession checkoutSession = CheckoutSession.builder().orderId(1l).sessionId("cs_test").build();
+		when(paymentProvider.createCheckoutSession(order)).thenReturn(checkoutSession);
+
+		// Method call and Verification
+		assertThat(paymentGateway.createCheckoutSession(order)).isSameAs(checkoutSession);
+	}
+
+	/**
+	 * Validate a slow provider call times out
+	 */
+	@Test(expected = PaymentGatewayUnavailableException.class)
+	public void givenSlowProvider_whenCreateCheckoutSession_thenTimeout() {
+		// Data preparation
+		when(paymentProvider.createCheckoutSession(order)).thenAnswer(invocation -> {
+			Thread.sleep(1000);
+			return null;
+		});
+
+		// Method call
+		paymentGateway.createCheckoutSession(order);
+	}
+
+	/**
+	 * Validate the timed out provider calls are interrupted, so they give their
+	 * bulkhead threads back to the next checkouts
+	 */
+	@Test
+	public void givenTimedOutCalls_whenCreateCheckoutSession_thenBulkheadIsFreed() {
+		// Data preparation
+		CheckoutSession checkoutSession = CheckoutSession.builder().orderId(1l).sessionId("cs_test").build();
+		when(paymentProvider.createCheckoutSession(order)).thenAnswer(invocation -> {
+			Thread.sleep(60000);
+			return null;
+		}).thenAnswer(invocation -> {
+			Thread.sleep(60000);
+			return null;
+		}).thenReturn(checkoutSession);
+		for (int i = 0; i < 2; i++) {
+			try {
+				paymentGateway.createCheckoutSession(order);
+				fail("PaymentGatewayUnavailableException is expected");
+			} catch (PaymentGatewayUnavailableException e) {
+				assertThat(e.getMessage()).isEqualTo("Payment gateway did not respond in time.");
+			}
+		}
+
+		// Method call and Verification
+		assertThat(paymentGateway.createCheckoutSession(order)).isSameAs(checkoutSession);
+	}
+
+	/**
+	 * Validate the calls above the bulkhead are rejected at once rather than
+	 * queued, so the call timeout never counts a queue wait
+	 */
+	@Test
+	public void givenBulkheadFull_whenCreateCheckoutSession_thenRejectedWithoutQueueing() throws Exception {
+		// Data preparation
+		CountDownLatch started = new CountDownLatch(2);
+		CountDownLatch provider = new CountDownLatch(1);
+		CheckoutSession checkoutSession = CheckoutSession.builder().orderId(1l).sessionId("cs_test").build();
+		when(paymentProvider.createCheckoutSession(order)).thenAnswer(invocation -> {
+			started.countDown();
+			provider.await();
+			return checkoutSession;
+		});
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		CompletableFuture<CheckoutSession> first = CompletableFuture
+				.supplyAsync(() -> paymentGateway.createCheckoutSession(order), callers);
+		CompletableFuture<CheckoutSession> second = CompletableFuture
+				.supplyAsync(() -> paymentGateway.createCheckoutSession(order), callers);
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// Method call and Verification
+		try {
+			paymentGateway.createCheckoutSession(order);
+			fail("PaymentGatewayUnavailableException is expected");
+		} catch (PaymentGatewayUnavailableException e) {
+			assertThat(e.getMessage()).isEqualTo("Payment gateway is busy, please retry later.");
+		}
+		provider.countDown();
+		assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(checkoutSession);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(checkoutSession);
+		verify(paymentProvider, times(2)).createCheckoutSession(order);
+		callers.shutdown();
+	}
+
+	/**
+	 * Validate a failing provider opens the circuit, so the next checkouts fail
+	 * fast without calling it
+	 */
+	@Test
+	public void givenFailingProvider_whenCreateCheckoutSessions_thenCircuitOpens() {
+		// Data preparation
+		when(paymentProvider.createCheckoutSession(order)).thenThrow(new PaymentGetwayException("Stripe is down"));
+
+		// Method call
+		for (int i = 0; i < 4; i++) {
+			try {
+				paymentGateway.createCheckoutSession(order);
+				fail("PaymentGetwayException is expected");
+			} catch (PaymentGetwayException e) {
+				assertThat(e.getMessage()).isEqualTo("Stripe is down");
+			}
+		}
+
+		// Verification
+		assertThat(paymentGateway.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		try {
+			paymentGateway.createCheckoutSession(order);
+			fail("PaymentGatewayUnavailableException is expected");
+		} catch (PaymentGatewayUnavailableException e) {
+			verify(paymentProvider, times(4)).createCheckoutSession(order);
+		}
+		assertThat(meterRegistry.get("resilience4j.circuitbreaker.transitions").tag("to", "OPEN").counter().count())
+				.isEqualTo(1.0);
+	}
+}
@@ -0,0 +1,75 @@
+package com.sayedbaladoh.ecommerce.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.dto.order.CheckoutSession;
+import com.sayedbaladoh.ecommerce.exception.PaymentGetwayException;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.service.impl.SimulatedPaymentService.LatencyDistribution;
+
+/**
+ * Simulated payment service unit tests
+ *
+ * Test the simulated checkout sessions and the failure injection
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class SimulatedPaymentServiceTest {
+
+	private SimulatedPaymentService paymentService;
+
+	private Order order;
+
+	@Before
+	public void setUp() {
+		paymentService = new SimulatedPaymentService();
+		ReflectionTestUtils.setField(paymentService, "latencyDistribution", LatencyDistribution.FIXED);
+		ReflectionTestUtils.setField(paymentService, "latencyInMs", 0l);
+		ReflectionTestUtils.setField(paymentService, "timeoutInMs", 0l);
+		order = new Order();
+		order.setId(1l);
+	}
+
+	/**
+	 * Validate a checkout session looking like a Stripe one is created
+	 */
+	@Test
+	public void givenOrder_whenCreateCheckoutSession_thenReturnCheckoutSession() {
+		// Method call
+		CheckoutSession checkoutSession = paymentService.createCheckoutSession(order);
+
+		// Verification
+		assertThat(checkoutSession.getOrderId()).isEqualTo(1l);
+		assertThat(checkoutSession.getSessionId()).startsWith("cs_test_");
+		assertThat(checkoutSession.getPaymentStatus()).isEqualTo("unpaid");
+		assertThat(checkoutSession.getUrl()).isEqualTo("https://checkout.stripe.com/pay/" + checkoutSession.getSessionId());
+	}
+
+	/**
+	 * Validate the injected errors and timeouts fail the checkout
+	 */
+	@Test
+	public void givenErrorAndTimeoutRates_whenCreateCheckoutSession_thenThrowPaymentGatewayException() {
+		ReflectionTestUtils.setField(paymentService, "errorRate", 1.0);
+		try {
+			paymentService.createCheckoutSession(order);
+			fail("PaymentGetwayException is expected");
+		} catch (PaymentGetwayException e) {
+			assertThat(e.getMessage()).contains("error");
+		}
+
+		ReflectionTestUtils.setField(paymentService, "timeoutRate", 1.0);
+		try {
+			paymentService.createCheckoutSession(order);
+			fail("PaymentGetwayException is expected");
+		} catch (PaymentGetwayException e) {
+			assertThat(e.getMessage()).contains("timed out");
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.sayedbaladoh.ecommerce.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Money util unit tests
+ *
+ * Test the conversion between units and cents and the cents arithmetic
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class MoneyUtilTest {
+
+	@Test
+	public void givenUnits_whenToCents_thenReturnExactCents() {
+
+		// Method call and Verification
+		assertThat(MoneyUtil.toCents(19.99)).isEqualTo(1999);
+		assertThat(MoneyUtil.toCents(0.29)).isEqualTo(29);
+		assertThat(MoneyUtil.toCents(1.005)).isEqualTo(101);
+		assertThat(MoneyUtil.toUnits(1999)).isEqualTo(19.99);
+	}
+
+	@Test
+	public void givenManyItems_whenSumCents_thenTotalDoesNotDrift() {
+
+		// Data preparation
+		long totalInCents = 0;
+
+		// Method call
+		for (int i = 0; i < 1000; i++)
+			totalInCents += MoneyUtil.multiply(MoneyUtil.toCents(0.1), 3);
+
+		// Verification
+		assertThat(totalInCents).isEqualTo(30000);
+		assertThat(MoneyUtil.toUnits(totalInCents)).isEqualTo(300.0);
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void givenOverflowingQuantity_whenMultiply_thenThrowException() {
+
+		// Method call
+		MoneyUtil.multiply(Long.MAX_VALUE, 2);
+	}
+}
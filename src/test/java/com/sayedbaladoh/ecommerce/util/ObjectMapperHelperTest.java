@@ -0,0 +1,167 @@
+package com.sayedbaladoh.ecommerce.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.modelmapper.ModelMapper;
+
+import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
+import com.sayedbaladoh.ecommerce.dto.order.OrderResponseDto;
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
+import com.sayedbaladoh.ecommerce.dto.product.ProductDto;
+import com.sayedbaladoh.ecommerce.dto.product.ProductRequestDto;
+import com.sayedbaladoh.ecommerce.dto.product.ProductResponseDto;
+import com.sayedbaladoh.ecommerce.enums.OrderStatus;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.model.User;
+import com.sayedbaladoh.ecommerce.util.mapper.OrderItemRequestMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.OrderItemResponseMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.OrderResponseMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.ProductRequestMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.ProductResponseMapper;
+import com.sayedbaladoh.ecommerce.util.mapper.UserSummaryMapper;
+
+/**
+ * Object mapper helper unit tests
+ *
+ * Test the type mappers and the ModelMapper fallback
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class ObjectMapperHelperTest {
+
+	private ObjectMapperHelper objectMapperHelper;
+
+	@Before
+	public void setUp() {
+		ProductResponseMapper productResponseMapper = new ProductResponseMapper();
+		OrderItemResponseMapper orderItemResponseMapper = new OrderItemResponseMapper(productResponseMapper);
+		objectMapperHelper = new ObjectMapperHelper(new ModelMapper(),
+				List.of(productResponseMapper, new ProductRequestMapper(), new OrderItemRequestMapper(),
+						orderItemResponseMapper, new UserSummaryMapper(),
+						new OrderResponseMapper(orderItemResponseMapper, new UserSummaryMapper())));
+		objectMapperHelper.init();
+	}
+
+	/**
+	 * Validate mapping an order with its user and items
+	 */
+	@Test
+	public void givenOrder_whenMapToOrderResponseDto_thenAllPropertiesAreMapped() {
+		// Data preparation
+		User user = new User("test", "test@test.com", "12345789");
+		user.setId(3l);
+		Order order = new Order(1l, OrderStatus.NEW, null, 0, 0, null, user, new Date(), new Date());
+		order.setOrderItems(List.of(new OrderItem(order, mockProduct(1l, "Mobile", 150), 2),
+				new OrderItem(order, mockProduct(2l, "TV", 300), 1)));
+		order.calculateTotals();
+
+		// Method call
+		OrderResponseDto orderResponseDto = objectMapperHelper.map(order, OrderResponseDto.class);
+
+		// Verification
+		assertEquals(orderResponseDto.getId(), order.getId());
+		assertEquals(orderResponseDto.getStatus(), order.getStatus());
+		assertEquals(orderResponseDto.getCreatedDate(), order.getCreatedDate());
+		assertEquals(orderResponseDto.getNumberOfProducts(), 2);
+		assertThat(orderResponseDto.getTotalOrderPrice()).isEqualTo(600.0);
+		assertEquals(orderResponseDto.getUser().getId(), user.getId());
+		assertEquals(orderResponseDto.getUser().getEmail(), user.getEmail());
+		assertThat(orderResponseDto.getOrderItems()).hasSize(2);
+		assertEquals(orderResponseDto.getOrderItems().get(1).getQuantity(), 1);
+		assertEquals(orderResponseDto.getOrderItems().get(1).getProduct().getName(), "TV");
+		assertThat(orderResponseDto.getOrderItems().get(1).getUnitPrice()).isEqualTo(300.0);
+	}
+
+	/**
+	 * Validate the order totals are mapped from the persisted snapshot without
+	 * loading its items
+	 */
+	@Test
+	public void givenOrderWithoutLoadedItems_whenMapToOrderResponseDto_thenTotalsAreMapped() {
+		// Data preparation
+		Order order = new Order();
+		order.setId(1l);
+		order.setSubtotalInCents(MoneyUtil.toCents(600));
+		order.setItemCount(2);
+
+		// Method call
+		OrderResponseDto orderResponseDto = objectMapperHelper.map(order, OrderResponseDto.class);
+
+		// Verification
+		assertEquals(orderResponseDto.getNumberOfProducts(), 2);
+		assertThat(orderResponseDto.getTotalOrderPrice()).isEqualTo(600.0);
+		assertThat(orderResponseDto.getOrderItems()).isNull();
+	}
+
+	/**
+	 * Validate mapping a product request into an existing product
+	 */
+	@Test
+	public void givenProductRequest_whenMapToExistingProduct_thenProductIsUpdated() {
+		// Data preparation
+		Product product = mockProduct(1l, "Mobile", 150);
+		ProductRequestDto productRequestDto = new ProductRequestDto("Phone", 99, false, 20, "http://image", "desc");
+
+		// Method call
+		Product updatedProduct = objectMapperHelper.map(productRequestDto, product);
+
+		// Verification
+		assertThat(updatedProduct).isSameAs(product);
+		assertEquals(updatedProduct.getId().longValue(), 1l);
+		assertEquals(updatedProduct.getName(), "Phone");
+		assertThat(updatedProduct.getPriceInCents()).isEqualTo(9900);
+		assertThat(updatedProduct.isAvailable()).isFalse();
+		assertThat(updatedProduct.getStock()).isEqualTo(20);
+	}
+
+	/**
+	 * Validate mapping a page of products
+	 */
+	@Test
+	public void givenProducts_whenMapAll_thenReturnProductResponses() {
+		// Method call
+		List<ProductResponseDto> products = objectMapperHelper
+				.mapAll(List.of(mockProduct(1l, "Mobile", 150), mockProduct(2l, "TV", 300)), ProductResponseDto.class);
+
+		// Verification
+		assertThat(products).extracting(ProductResponseDto::getName).containsExactly("Mobile", "TV");
+	}
+
+	/**
+	 * Validate mapping a pair without type mapper falls back to the ModelMapper
+	 */
+	@Test
+	public void givenOrderDto_whenMapToOrder_thenFallbackToModelMapper() {
+		// Data preparation
+		OrderItemDto orderItemDto = new OrderItemDto();
+		orderItemDto.setProduct(new ProductDto(5l));
+		orderItemDto.setQuantity(3);
+		OrderDto orderDto = new OrderDto();
+		orderDto.setOrderItems(List.of(orderItemDto));
+
+		// Method call
+		Order order = objectMapperHelper.map(orderDto, Order.class);
+
+		// Verification
+		assertThat(order.getOrderItems()).hasSize(1);
+		assertEquals(order.getOrderItems().get(0).getQuantity().intValue(), 3);
+		assertEquals(order.getOrderItems().get(0).getProduct().getId().longValue(), 5l);
+	}
+
+	private Product mockProduct(Long id, String name, double price) {
+		Product product = new Product(id);
+		product.setName(name);
+		product.setPriceInCents(MoneyUtil.toCents(price));
+		product.setAvailable(true);
+		return product;
+	}
+}
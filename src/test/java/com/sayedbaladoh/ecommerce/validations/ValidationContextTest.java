@@ -0,0 +1,263 @@
+package com.sayedbaladoh.ecommerce.validations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.dto.order.OrderDto;
+import com.sayedbaladoh.ecommerce.dto.orderitem.OrderItemDto;
+import com.sayedbaladoh.ecommerce.dto.product.ProductDto;
+import com.sayedbaladoh.ecommerce.exception.ResourceNotFoundException;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.service.ProductService;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationCost;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationDomain;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
+import com.sayedbaladoh.ecommerce.validations.policy.AvailabilityValidator;
+import com.sayedbaladoh.ecommerce.validations.policy.ProductsExistenceValidator;
+
+/**
+ * Validation context unit tests
+ *
+ * Test the validations order, the concurrent I/O bound validations, the fail
+ * fast validations and the concurrent requests results
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class ValidationContextTest {
+
+	private ExecutorService validationExecutor;
+
+	private final List<ValidationType> executed = new CopyOnWriteArrayList<>();
+
+	@Before
+	public void setUp() {
+		validationExecutor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() {
+		validationExecutor.shutdownNow();
+	}
+
+	/**
+	 * Validate the in memory validations run before the I/O bound ones and all
+	 * the violations are returned
+	 */
+	@Test
+	public void givenValidations_whenExecute_thenInMemoryRunFirstAndAllViolationsAreReturned() {
+		// Data preparation
+		ValidationContext validationContext = validationContext(
+				strategy(ValidationType.Products_Existence, ValidationCost.IO, false, false),
+				strategy(ValidationType.USER_FRAUD, ValidationCost.IN_MEMORY, false, false),
+				strategy(ValidationType.TOTAL_BASKET_MONEY, ValidationCost.IN_MEMORY, false, true));
+
+		// Method call
+		Set<ValidationViolation> violations = validationContext.execute(ValidationDomain.CHECK_OUT, "order");
+
+		// Verification
+		assertThat(violations).extracting(ValidationViolation::getType)
+				.containsExactlyInAnyOrder(ValidationType.Products_Existence, ValidationType.USER_FRAUD);
+		assertThat(executed).hasSize(3).endsWith(ValidationType.Products_Existence);
+	}
+
+	/**
+	 * Validate a failing fail fast validation skips the remaining validations
+	 */
+	@Test
+	public void givenFailingFailFastValidation_whenExecute_thenRemainingValidationsAreSkipped() {
+		// Data preparation
+		ValidationContext validationContext = validationContext(
+				strategy(ValidationType.USER_FRAUD, ValidationCost.IN_MEMORY, true, false),
+				strategy(ValidationType.TOTAL_BASKET_MONEY, ValidationCost.IN_MEMORY, false, false),
+				strategy(ValidationType.Products_Existence, ValidationCost.IO, false, false));
+
+		// Method call
+		Set<ValidationViolation> violations = validationContext.execute(ValidationDomain.CHECK_OUT, "order");
+
+		// Verification
+		assertThat(violations).extracting(ValidationViolation::getType).containsExactly(ValidationType.USER_FRAUD);
+		assertThat(executed).containsExactly(ValidationType.USER_FRAUD);
+	}
+
+	/**
+	 * Validate the I/O bound validations run concurrently, each one waits for the
+	 * other to start
+	 */
+	@Test(timeout = 5000)
+	public void givenIoBoundValidations_whenExecute_thenValidationsRunConcurrently() {
+		// Data preparation
+		CountDownLatch started = new CountDownLatch(2);
+		ValidationContext validationContext = validationContext(
+				awaitingStrategy(ValidationType.Products_Existence, started),
+				awaitingStrategy(ValidationType.BASKET_ITEMS_STOCK, started));
+
+		// Method call
+		Set<ValidationViolation> violations = validationContext.execute(ValidationDomain.CHECK_OUT, "order");
+
+		// Verification
+		assertThat(violations).isEmpty();
+		assertThat(executed).containsExactlyInAnyOrder(ValidationType.Products_Existence,
+				ValidationType.BASKET_ITEMS_STOCK);
+	}
+
+	/**
+	 * Validate the failure of a concurrent validation is thrown as is
+	 */
+	@Test(expected = ResourceNotFoundException.class)
+	public void givenFailingIoBoundValidation_whenExecute_thenThrowItsFailure() {
+		// Data preparation
+		ValidationContext validationContext = validationContext(
+				strategy(ValidationType.BASKET_ITEMS_STOCK, ValidationCost.IO, false, true),
+				new TestStrategy(ValidationType.Products_Existence, ValidationCost.IO, false) {
+					@Override
+					protected boolean check() {
+						throw new ResourceNotFoundException("Product not found.");
+					}
+				});
+
+		// Method call
+		validationContext.execute(ValidationDomain.CHECK_OUT, "order");
+	}
+
+	/**
+	 * Validate the concurrent requests to the shared validators get the
+	 * violations of their own input
+	 */
+	@Test
+	public void givenConcurrentRequests_whenExecute_thenEachGetsItsOwnViolations() throws Exception {
+		// Data preparation
+		AvailabilityValidator availabilityValidator = new AvailabilityValidator();
+		ReflectionTestUtils.setField(availabilityValidator, "messagePreFix", "Not available: ");
+		ProductService productService = Mockito.mock(ProductService.class);
+		Mockito.when(productService.getMissingProductIds(ArgumentMatchers.anyCollection()))
+				.thenAnswer(invocation -> new LinkedHashSet<>(invocation.<Collection<Long>>getArgument(0)));
+		ProductsExistenceValidator productsExistenceValidator = new ProductsExistenceValidator(productService);
+		ReflectionTestUtils.setField(productsExistenceValidator, "messagePreFix", "Not found: ");
+		ValidationContext validationContext = validationContext(availabilityValidator, productsExistenceValidator);
+
+		List<Callable<Set<ValidationViolation>>> requests = IntStream.range(0, 100)
+				.<Callable<Set<ValidationViolation>>>mapToObj(i -> i % 2 == 0
+						? () -> validationContext.execute(ValidationDomain.CHECK_OUT, unavailableOrder(i))
+						: () -> validationContext.execute(ValidationDomain.ORDER_SAVE, missingProductsOrderDto(i)))
+				.collect(Collectors.toList());
+
+		// Method call
+		List<Future<Set<ValidationViolation>>> results = validationExecutor.invokeAll(requests);
+
+		// Verification
+		for (int i = 0; i < results.size(); i++)
+			assertThat(results.get(i).get()).extracting(ValidationViolation::getMessage).containsExactly(i % 2 == 0
+					? "Not available: {#" + i + "- Product " + i + "}"
+					: "Not found: {#" + i + "}");
+	}
+
+	private ValidationContext validationContext(ValidationStrategy... strategies) {
+		return new ValidationContext(new ValidationStrategyFactory(Set.of(strategies)), validationExecutor);
+	}
+
+	private Order unavailableOrder(long productId) {
+		Product product = new Product(productId);
+		product.setName("Product " + productId);
+		product.setAvailable(false);
+		Order order = new Order();
+		order.setOrderItems(List.of(new OrderItem(order, product, 1)));
+		return order;
+	}
+
+	private OrderDto missingProductsOrderDto(long productId) {
+		OrderItemDto orderItem = new OrderItemDto();
+		orderItem.setQuantity(1);
+		orderItem.setProduct(new ProductDto(productId));
+		OrderDto orderDto = new OrderDto();
+		orderDto.setOrderItems(List.of(orderItem));
+		return orderDto;
+	}
+
+	private ValidationStrategy strategy(ValidationType type, ValidationCost cost, boolean failFast, boolean valid) {
+		return new TestStrategy(type, cost, failFast) {
+			@Override
+			protected boolean check() {
+				return valid;
+			}
+		};
+	}
+
+	private ValidationStrategy awaitingStrategy(ValidationType type, CountDownLatch started) {
+		return new TestStrategy(type, ValidationCost.IO, false) {
+			@Override
+			protected boolean check() {
+				started.countDown();
+				try {
+					return started.await(2, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		};
+	}
+
+	private abstract class TestStrategy implements ValidationStrategy {
+
+		private final ValidationType type;
+		private final ValidationCost cost;
+		private final boolean failFast;
+
+		TestStrategy(ValidationType type, ValidationCost cost, boolean failFast) {
+			this.type = type;
+			this.cost = cost;
+			this.failFast = failFast;
+		}
+
+		protected abstract boolean check();
+
+		@Override
+		public ValidationDomain getDomain() {
+			return ValidationDomain.CHECK_OUT;
+		}
+
+		@Override
+		public ValidationType getType() {
+			return type;
+		}
+
+		@Override
+		public ValidationCost getCost() {
+			return cost;
+		}
+
+		@Override
+		public boolean isFailFast() {
+			return failFast;
+		}
+
+		@Override
+		public <T> ValidationResult validate(T input) {
+			executed.add(type);
+			return check() ? ValidationResult.valid() : ValidationResult.invalid(type + " failed.");
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.sayedbaladoh.ecommerce.validations.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sayedbaladoh.ecommerce.enums.OrderStatus;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.User;
+import com.sayedbaladoh.ecommerce.service.FraudVelocityService;
+import com.sayedbaladoh.ecommerce.validations.enums.ValidationType;
+
+/**
+ * Checkout rule engine unit tests
+ *
+ * Test the rules loading, their hot reload and the user velocity variables
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class CheckoutRuleEngineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File rulesFile;
+
+	private FraudVelocityService fraudVelocityService;
+
+	private CheckoutRuleEngine checkoutRuleEngine;
+
+	@Before
+	public void setUp() throws IOException {
+		rulesFile = folder.newFile("checkout-rules.properties");
+		write("fraud.maxSubtotal.type = USER_FRAUD\nfraud.maxSubtotal.condition = subtotal <= 1500\n"
+				+ "fraud.maxSubtotal.message = User is fraud.\n");
+		rulesFile.setLastModified(1000);
+
+		fraudVelocityService = Mockito.mock(FraudVelocityService.class);
+		checkoutRuleEngine = new CheckoutRuleEngine(new DefaultResourceLoader(), fraudVelocityService);
+		ReflectionTestUtils.setField(checkoutRuleEngine, "location", rulesFile.toURI().toString());
+		checkoutRuleEngine.init();
+	}
+
+	/**
+	 * Validate the rules are compiled from the rules file
+	 */
+	@Test
+	public void givenRulesFile_whenInit_thenRulesAreLoaded() {
+		// Verification
+		assertThat(checkoutRuleEngine.getStrategies()).hasSize(1);
+		CheckoutRule rule = checkoutRuleEngine.getStrategies().get(0);
+		assertThat(rule.getName()).isEqualTo("fraud.maxSubtotal");
+		assertThat(rule.getType()).isEqualTo(ValidationType.USER_FRAUD);
+		assertThat(rule.getCondition()).isEqualTo("subtotal <= 1500");
+		assertThat(rule.getMessage()).isEqualTo("User is fraud.");
+		assertThat(rule.isFailFast()).isFalse();
+	}
+
+	/**
+	 * Validate the modified rules file is reloaded
+	 */
+	@Test
+	public void givenModifiedRulesFile_whenReloadIfModified_thenNewRulesAreLoaded() throws IOException {
+		// Data preparation
+		write("fraud.maxSubtotal.type = USER_FRAUD\nfraud.maxSubtotal.condition = subtotal <= 1000\n"
+				+ "fraud.maxSubtotal.message = User is fraud.\n"
+				+ "basket.minTotal.type = TOTAL_BASKET_MONEY\nbasket.minTotal.condition = subtotal > 100\n"
+				+ "basket.minTotal.message = Too small.\nbasket.minTotal.failFast = true\n"
+				+ "basket.maxItems.type = TOTAL_BASKET_MONEY\nbasket.maxItems.condition = itemCount <= 20\n"
+				+ "basket.maxItems.message = Too many items.\n");
+		rulesFile.setLastModified(2000);
+
+		// Method call
+		checkoutRuleEngine.reloadIfModified();
+
+		// Verification
+		assertThat(checkoutRuleEngine.getStrategies()).extracting(CheckoutRule::getCondition)
+				.containsExactly("itemCount <= 20", "subtotal > 100", "subtotal <= 1000");
+		assertThat(checkoutRuleEngine.getStrategies()).extracting(CheckoutRule::getType).containsExactly(
+				ValidationType.TOTAL_BASKET_MONEY, ValidationType.TOTAL_BASKET_MONEY, ValidationType.USER_FRAUD);
+		assertThat(checkoutRuleEngine.getStrategies().get(1).isFailFast()).isTrue();
+	}
+
+	/**
+	 * Validate an invalid rules file keeps the previous rules
+	 */
+	@Test
+	public void givenInvalidRulesFile_whenReloadIfModified_thenPreviousRulesAreKept() throws IOException {
+		// Data preparation
+		write("fraud.maxSubtotal.type = USER_FRAUD\nfraud.maxSubtotal.condition = subtotal <=\n"
+				+ "fraud.maxSubtotal.message = User is fraud.\n");
+		rulesFile.setLastModified(2000);
+
+		// Method call
+		checkoutRuleEngine.reloadIfModified();
+
+		// Verification
+		assertThat(checkoutRuleEngine.getStrategies()).extracting(CheckoutRule::getCondition)
+				.containsExactly("subtotal <= 1500");
+	}
+
+	/**
+	 * Validate the velocity rules read the order user velocity
+	 */
+	@Test
+	public void givenVelocityRule_whenValidate_thenUserVelocityIsChecked() throws IOException {
+		// Data preparation
+		write("fraud.velocity.type = USER_FRAUD_VELOCITY\n"
+				+ "fraud.velocity.condition = user.ordersLastMinute <= 5 and user.spendLastDay <= 2000\n"
+				+ "fraud.velocity.message = Too fast.\n");
+		checkoutRuleEngine.reload();
+		Order order = new Order(1l, OrderStatus.NEW, null, 0, 0, null, new User(2l), new Date(), new Date());
+		Mockito.when(fraudVelocityService.getOrdersLastMinute(2l)).thenReturn(3l, 6l);
+		Mockito.when(fraudVelocityService.getSpendLastDayInCents(2l)).thenReturn(150000l);
+
+		// Method call
+		CheckoutRule rule = checkoutRuleEngine.getStrategies().get(0);
+
+		// Verification
+		assertThat(rule.validate(order).isValid()).isTrue();
+		assertThat(rule.validate(order).getMessage()).isEqualTo("Too fast.");
+	}
+
+	private void write(String rules) throws IOException {
+		Files.write(rulesFile.toPath(), rules.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,96 @@
+package com.sayedbaladoh.ecommerce.validations.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.sayedbaladoh.ecommerce.enums.OrderStatus;
+import com.sayedbaladoh.ecommerce.model.Order;
+import com.sayedbaladoh.ecommerce.model.OrderItem;
+import com.sayedbaladoh.ecommerce.model.Product;
+import com.sayedbaladoh.ecommerce.model.User;
+import com.sayedbaladoh.ecommerce.util.MoneyUtil;
+
+/**
+ * Rule expression compiler unit tests
+ *
+ * Test the compiled conditions over the order and the invalid conditions
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public class RuleExpressionCompilerTest {
+
+	/**
+	 * Validate the comparisons of the money and count variables
+	 */
+	@Test
+	public void givenComparisons_whenCompile_thenEvaluateOverOrder() {
+		// Data preparation
+		Order order = mockOrder(mockProduct(1l, 700, true), mockProduct(2l, 900, true));
+
+		// Method call
+		Predicate<Order> fraud = RuleExpressionCompiler.compile("subtotal <= 1500");
+		Predicate<Order> minimum = RuleExpressionCompiler.compile("subtotal > 100 and itemCount >= 2");
+
+		// Verification
+		assertThat(fraud.test(order)).isFalse();
+		assertThat(minimum.test(order)).isTrue();
+	}
+
+	/**
+	 * Validate the boolean operators precedence, parentheses, strings and the
+	 * product flags
+	 */
+	@Test
+	public void givenBooleanOperators_whenCompile_thenApplyPrecedence() {
+		// Data preparation
+		Order order = mockOrder(mockProduct(1l, 50, false), mockProduct(2l, 60, true));
+
+		// Method call and Verification
+		assertThat(RuleExpressionCompiler.compile("allItemsAvailable or unavailableItemCount == 1 and true")
+				.test(order)).isTrue();
+		assertThat(RuleExpressionCompiler.compile("not (allItemsAvailable or unavailableItemCount == 1)")
+				.test(order)).isFalse();
+		assertThat(RuleExpressionCompiler.compile("user.email == 'user@mail.com' and user.id != 5").test(order))
+				.isTrue();
+	}
+
+	/**
+	 * Validate the invalid conditions are rejected when compiled
+	 */
+	@Test
+	public void givenInvalidConditions_whenCompile_thenThrowIllegalArgumentException() {
+		for (String condition : List.of("", "subtotal >", "subtotal > 'a'", "unknown > 1", "subtotal", "(true",
+				"true true", "user.email < 'a'", "subtotal # 1"))
+			try {
+				// Method call
+				RuleExpressionCompiler.compile(condition);
+				throw new AssertionError("Compiled the invalid condition: " + condition);
+			} catch (IllegalArgumentException e) {
+				// Verification
+				assertThat(e.getMessage()).endsWith("in condition: " + condition);
+			}
+	}
+
+	private Order mockOrder(Product... products) {
+		List<OrderItem> orderItems = new ArrayList<>();
+		Order order = new Order(1l, OrderStatus.NEW, orderItems, 0, 0, null,
+				new User(2l), new Date(), new Date());
+		order.getUser().setEmail("user@mail.com");
+		for (Product product : products)
+			orderItems.add(new OrderItem(order, product, 1));
+		order.calculateTotals();
+		return order;
+	}
+
+	private Product mockProduct(Long id, double price, boolean available) {
+		return new Product(id, "Product " + id, MoneyUtil.toCents(price), available, null, "", "", new Date(),
+				new Date());
+	}
+}